@@ -21,7 +21,7 @@ package org.greenrobot.eventbus;
  * 
  * @author Markus
  */
-class AsyncPoster implements Runnable, Poster {
+class AsyncPoster implements Runnable, DropOldestPoster {
 
     private final PendingPostQueue queue;
     private final EventBus eventBus;
@@ -32,16 +32,27 @@ class AsyncPoster implements Runnable, Poster {
     }
 
     public void enqueue(Subscription subscription, Object event) {
-        PendingPost pendingPost = PendingPost.obtainPendingPost(subscription, event);
+        enqueue(subscription, event, false);
+    }
+
+    public void enqueue(Subscription subscription, Object event, boolean dropsOldest) {
+        PendingPost pendingPost = eventBus.obtainPendingPost(subscription, event, dropsOldest);
         queue.enqueue(pendingPost);
-        eventBus.getExecutorService().execute(this);
+        eventBus.getExecutorService(ThreadMode.ASYNC).execute(this);
     }
 
     @Override
     public void run() {
-        PendingPost pendingPost = queue.poll();
-        if(pendingPost == null) {
-            throw new IllegalStateException("No pending post available");
+        PendingPost pendingPost;
+        // The queue supports a single consumer only, but there is a thread per event here
+        synchronized (queue) {
+            while ((pendingPost = queue.poll()) == null) {
+                if (queue.isEmpty()) {
+                    throw new IllegalStateException("No pending post available");
+                }
+                // Another producer has not linked its pending post yet, which precedes ours
+                Thread.yield();
+            }
         }
         eventBus.invokeSubscriber(pendingPost);
     }
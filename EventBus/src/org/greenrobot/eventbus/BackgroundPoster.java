@@ -15,60 +15,54 @@
  */
 package org.greenrobot.eventbus;
 
-import java.util.logging.Level;
-
 /**
- * Posts events in background.
+ * Posts events in background. By default, there is a single background lane delivering all events sequentially. With
+ * multiple lanes, events are assigned to lanes by subscriber (and optionally event type) to keep their order per
+ * subscriber, while subscribers in different lanes are called in parallel.
  *
  * @author Markus
  */
-final class BackgroundPoster implements Runnable, Poster {
+final class BackgroundPoster implements DropOldestPoster {
 
-    private final PendingPostQueue queue;
+    private final PosterLane[] lanes;
+    private final boolean lanesByEventType;
     private final EventBus eventBus;
 
-    private volatile boolean executorRunning;
-
-    BackgroundPoster(EventBus eventBus) {
+    BackgroundPoster(EventBus eventBus, WaitStrategy waitStrategy, int laneCount, boolean lanesByEventType) {
         this.eventBus = eventBus;
-        queue = new PendingPostQueue();
+        this.lanesByEventType = lanesByEventType;
+        lanes = new PosterLane[laneCount];
+        for (int i = 0; i < laneCount; i++) {
+            lanes[i] = new PosterLane(eventBus, eventBus.getExecutorService(ThreadMode.BACKGROUND), waitStrategy, 1000);
+        }
     }
 
     public void enqueue(Subscription subscription, Object event) {
-        PendingPost pendingPost = PendingPost.obtainPendingPost(subscription, event);
-        synchronized (this) {
-            queue.enqueue(pendingPost);
-            if (!executorRunning) {
-                executorRunning = true;
-                eventBus.getExecutorService().execute(this);
-            }
-        }
+        enqueue(subscription, event, false);
+    }
+
+    public void enqueue(Subscription subscription, Object event, boolean dropsOldest) {
+        PendingPost pendingPost = eventBus.obtainPendingPost(subscription, event, dropsOldest);
+        PosterLane lane = lanes.length == 1 ? lanes[0] : lanes[getLaneIndex(subscription)];
+        lane.enqueue(pendingPost);
+    }
+
+    int getLaneIndex(Subscription subscription) {
+        return laneIndex(subscription.subscriber, subscription.subscriberMethod.eventType, lanesByEventType,
+                lanes.length);
+    }
+
+    PosterLane getLane(int laneIndex) {
+        return lanes[laneIndex];
     }
 
-    @Override
-    public void run() {
-        try {
-            try {
-                while (true) {
-                    PendingPost pendingPost = queue.poll(1000);
-                    if (pendingPost == null) {
-                        synchronized (this) {
-                            // Check again, this time in synchronized
-                            pendingPost = queue.poll();
-                            if (pendingPost == null) {
-                                executorRunning = false;
-                                return;
-                            }
-                        }
-                    }
-                    eventBus.invokeSubscriber(pendingPost);
-                }
-            } catch (InterruptedException e) {
-                eventBus.getLogger().log(Level.WARNING, Thread.currentThread().getName() + " was interrupted", e);
-            }
-        } finally {
-            executorRunning = false;
+    static int laneIndex(Object subscriber, Class<?> eventType, boolean lanesByEventType, int laneCount) {
+        int hash = System.identityHashCode(subscriber);
+        if (lanesByEventType) {
+            hash = 31 * hash + eventType.hashCode();
         }
+        hash ^= hash >>> 16;
+        return (hash & Integer.MAX_VALUE) % laneCount;
     }
 
 }
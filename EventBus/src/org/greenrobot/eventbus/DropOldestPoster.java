@@ -0,0 +1,32 @@
+/*
+ * Copyright (C) 2012-2020 Markus Junginger, greenrobot (http://greenrobot.org)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.greenrobot.eventbus;
+
+/**
+ * Implemented by posters queuing to a {@link PendingPostQueue}, which supports {@link OverflowPolicy#DROP_OLDEST}.
+ * Other posters (e.g. of a custom {@link MainThreadSupport}) cannot drop queued events; for those, the newest event
+ * is dropped instead.
+ */
+interface DropOldestPoster extends Poster {
+
+    /**
+     * Like {@link #enqueue(Subscription, Object)}.
+     *
+     * @param dropsOldest the event overflowed the queue limit; the queue must drop its oldest event of that limit, see
+     *                    {@link PendingPost#dropsOldest}
+     */
+    void enqueue(Subscription subscription, Object event, boolean dropsOldest);
+}
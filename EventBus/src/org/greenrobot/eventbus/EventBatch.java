@@ -0,0 +1,127 @@
+/*
+ * Copyright (C) 2012-2020 Markus Junginger, greenrobot (http://greenrobot.org)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.greenrobot.eventbus;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Collects the events of a subscription receiving batches (see {@link Subscribe#maxBatchSize()}). At most one
+ * pending post is queued for the subscription at any time; its delivery takes up to the maximum batch size of the
+ * collected events and queues another pending post if events remain. With a linger time, the first event of a batch
+ * schedules the pending post using the {@link HashedTimerWheel} of the bus, unless the batch gets full before.
+ * <p>
+ * With a queue capacity, each collected event takes a slot of the {@link QueueLimit} of the subscription, which is
+ * released once the event is drained for delivery. For {@link OverflowPolicy#DROP_OLDEST}, the oldest collected event
+ * is dropped right away.
+ */
+final class EventBatch implements Runnable {
+
+    private final EventBus eventBus;
+    private final Subscription subscription;
+    private final Poster poster;
+    private final int maxSize;
+    private final int lingerMillis;
+
+    /** Guarded by this. */
+    private ArrayList<Object> events = new ArrayList<>();
+    /** A pending post is queued; guarded by this. */
+    private boolean queued;
+    /** A linger timer is scheduled; guarded by this. */
+    private boolean lingering;
+
+    EventBatch(EventBus eventBus, Subscription subscription, Poster poster) {
+        this.eventBus = eventBus;
+        this.subscription = subscription;
+        this.poster = poster;
+        maxSize = subscription.subscriberMethod.maxBatchSize;
+        lingerMillis = subscription.subscriberMethod.batchLingerMillis;
+    }
+
+    /** @param dropOldest the event overflowed the queue limit with {@link OverflowPolicy#DROP_OLDEST} */
+    void add(Object event, boolean dropOldest) {
+        boolean enqueue = false;
+        boolean schedule = false;
+        boolean dropped = false;
+        synchronized (this) {
+            if (dropOldest && !events.isEmpty()) {
+                events.remove(0);
+                dropped = true;
+            }
+            events.add(event);
+            if (!queued) {
+                if (lingerMillis == 0 || events.size() >= maxSize) {
+                    queued = true;
+                    lingering = false;
+                    enqueue = true;
+                } else if (!lingering) {
+                    lingering = true;
+                    schedule = true;
+                }
+            }
+        }
+        if (dropped) {
+            subscription.queueLimit.release();
+        }
+        if (enqueue) {
+            poster.enqueue(subscription, this);
+        } else if (schedule) {
+            eventBus.getTimerWheel().schedule(this, TimeUnit.MILLISECONDS.toNanos(lingerMillis));
+        }
+    }
+
+    /** Linger timer expired. A timer of a batch delivered already may deliver the next batch a bit early. */
+    @Override
+    public void run() {
+        synchronized (this) {
+            if (!lingering) {
+                return;
+            }
+            lingering = false;
+            queued = true;
+        }
+        poster.enqueue(subscription, this);
+    }
+
+    /** Called by the delivery of the queued pending post; returns the events to pass to the subscriber. */
+    List<Object> drain() {
+        List<Object> batch;
+        boolean remaining;
+        synchronized (this) {
+            remaining = events.size() > maxSize;
+            if (!remaining) {
+                batch = events;
+                events = new ArrayList<>();
+                queued = false;
+            } else {
+                List<Object> head = events.subList(0, maxSize);
+                batch = new ArrayList<>(head);
+                head.clear();
+            }
+        }
+        QueueLimit queueLimit = subscription.queueLimit;
+        if (queueLimit != null && !batch.isEmpty()) {
+            queueLimit.release(batch.size());
+        }
+        if (remaining) {
+            // Still queued: the remaining events were waiting already
+            poster.enqueue(subscription, this);
+        }
+        return batch;
+    }
+
+}
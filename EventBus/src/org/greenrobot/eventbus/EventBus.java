@@ -17,14 +17,25 @@ package org.greenrobot.eventbus;
 
 import org.greenrobot.eventbus.android.AndroidDependenciesDetector;
 import java.lang.reflect.InvocationTargetException;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
 import java.util.HashMap;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
-import java.util.Set;
+import java.util.Queue;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.AtomicReferenceArray;
 import java.util.logging.Level;
 
 /**
@@ -46,18 +57,40 @@ public class EventBus {
     static volatile EventBus defaultInstance;
 
     private static final EventBusBuilder DEFAULT_BUILDER = new EventBusBuilder();
-    private static final Map<Class<?>, List<Class<?>>> eventTypesCache = new HashMap<>();
+    private static final Subscription[] NO_SUBSCRIPTIONS = new Subscription[0];
+    /**
+     * Caching the absence of subscribers must not hold on to arbitrarily many event classes (e.g. generated or of
+     * unloaded class loaders); once reached, these dispatch tables are removed.
+     */
+    static final int MAX_NO_SUBSCRIBER_TABLES = 1024;
+    private static final Comparator<Subscription> PRIORITY_ORDER = new Comparator<Subscription>() {
+        @Override
+        public int compare(Subscription a, Subscription b) {
+            int priorityA = a.subscriberMethod.priority;
+            int priorityB = b.subscriberMethod.priority;
+            return priorityA > priorityB ? -1 : (priorityA == priorityB ? 0 : 1);
+        }
+    };
+    private static volatile EventTypesCache eventTypesCache = EventTypesCache.create();
 
+    /** Modified only while holding the monitor of this instance, but read without locking when posting. */
     private final Map<Class<?>, CopyOnWriteArrayList<Subscription>> subscriptionsByEventType;
+    /**
+     * Dispatch table: all subscriptions a concrete event class is delivered to (including the ones of super classes and
+     * interfaces if eventInheritance is enabled), ordered by priority. Built lazily while holding the monitor of this
+     * instance; entries are removed once the subscriptions of any of its event types change.
+     */
+    private final Map<Class<?>, Subscription[]> subscriptionsByEventClass;
+    /** Incremented after dispatch tables were invalidated; allows posting threads to reuse a dispatch table. */
+    private volatile int dispatchTablesModCount;
+    /** Number of dispatch tables without subscriptions, see {@link #MAX_NO_SUBSCRIBER_TABLES}; guarded by this. */
+    private int noSubscriberTables;
     private final Map<Object, List<Class<?>>> typesBySubscriber;
-    private final Map<Class<?>, Object> stickyEvents;
+    private final StickyEventStore stickyEvents;
 
-    private final ThreadLocal<PostingThreadState> currentPostingThreadState = new ThreadLocal<PostingThreadState>() {
-        @Override
-        protected PostingThreadState initialValue() {
-            return new PostingThreadState();
-        }
-    };
+    private final ThreadLocal<PostingThreadState> currentPostingThreadState;
+    // @Nullable
+    private final PostingStatePool postingStatePool;
 
     // @Nullable
     private final MainThreadSupport mainThreadSupport;
@@ -65,14 +98,42 @@ public class EventBus {
     private final Poster mainThreadPoster;
     private final BackgroundPoster backgroundPoster;
     private final AsyncPoster asyncPoster;
+    private final OrderedAsyncPoster orderedAsyncPoster;
+    // @Nullable
+    private final ParallelFanOut parallelFanOut;
     private final SubscriberMethodFinder subscriberMethodFinder;
-    private final ExecutorService executorService;
+    private final ExecutorService backgroundExecutorService;
+    private final ExecutorService asyncExecutorService;
+    private final PendingPostPool pendingPostPool;
+    /** Created on first use by {@link #postDelayed(Object, long, TimeUnit)} or a timer of a subscription. */
+    private volatile HashedTimerWheel timerWheel;
+
+    private final int queueCapacity;
+    private final OverflowPolicy overflowPolicy;
+    private final boolean queueCapacityPerSubscriber;
+    // @Nullable
+    private final OverflowHandler overflowHandler;
+    private final AtomicLong overflowCount = new AtomicLong();
+    /**
+     * Keyed by subscriber or thread mode; for OverflowPolicy.DROP_OLDEST by queue (and subscriber). Guarded by this.
+     */
+    private final Map<Object, QueueLimit> queueLimits = new HashMap<>();
+    /**
+     * Marks threads which must not be blocked by a full queue: threads delivering queued events, and threads replaying
+     * sticky events while registering (holding the monitor of this instance). Only needed for OverflowPolicy.BLOCK.
+     */
+    // @Nullable
+    private final ThreadLocal<Boolean> mustNotBlock;
 
     private final boolean throwSubscriberException;
     private final boolean logSubscriberExceptions;
     private final boolean logNoSubscriberMessages;
     private final boolean sendSubscriberExceptionEvent;
     private final boolean sendNoSubscriberEvent;
+    // @Nullable
+    private final NoSubscriberSampler noSubscriberMessageSampler;
+    // @Nullable
+    private final NoSubscriberSampler noSubscriberEventSampler;
     private final boolean eventInheritance;
 
     private final int indexCount;
@@ -99,7 +160,7 @@ public class EventBus {
     /** For unit test primarily. */
     public static void clearCaches() {
         SubscriberMethodFinder.clearCaches();
-        eventTypesCache.clear();
+        eventTypesCache = EventTypesCache.create();
     }
 
     /**
@@ -112,13 +173,35 @@ public class EventBus {
 
     EventBus(EventBusBuilder builder) {
         logger = builder.getLogger();
-        subscriptionsByEventType = new HashMap<>();
+        if (builder.pooledPostingState) {
+            // Posting states are only set while posting
+            currentPostingThreadState = new ThreadLocal<>();
+            postingStatePool = new PostingStatePool();
+        } else {
+            currentPostingThreadState = new ThreadLocal<PostingThreadState>() {
+                @Override
+                protected PostingThreadState initialValue() {
+                    return new PostingThreadState();
+                }
+            };
+            postingStatePool = null;
+        }
+        subscriptionsByEventType = new ConcurrentHashMap<>();
+        subscriptionsByEventClass = new ConcurrentHashMap<>();
         typesBySubscriber = new HashMap<>();
-        stickyEvents = new ConcurrentHashMap<>();
+        stickyEvents = new StickyEventStore(builder.stickyTimeToLiveNanos, builder.maxStickyEvents,
+                builder.maxStickyEventBytes, builder.stickyEventSizer);
+        pendingPostPool = PendingPostPool.create(builder.pendingPostPooling);
         mainThreadSupport = builder.getMainThreadSupport();
         mainThreadPoster = mainThreadSupport != null ? mainThreadSupport.createPoster(this) : null;
-        backgroundPoster = new BackgroundPoster(this);
+        backgroundExecutorService = builder.getBackgroundExecutorService();
+        asyncExecutorService = builder.asyncExecutorService;
+        backgroundPoster = new BackgroundPoster(this, builder.waitStrategy, builder.backgroundLanes,
+                builder.backgroundLanesByEventType);
         asyncPoster = new AsyncPoster(this);
+        orderedAsyncPoster = new OrderedAsyncPoster(this);
+        parallelFanOut = builder.fanOutPool != null ?
+                new ParallelFanOut(this, builder.fanOutPool, builder.fanOutMinSubscriptions) : null;
         indexCount = builder.subscriberInfoIndexes != null ? builder.subscriberInfoIndexes.size() : 0;
         subscriberMethodFinder = new SubscriberMethodFinder(builder.subscriberInfoIndexes,
                 builder.strictMethodVerification, builder.ignoreGeneratedIndex);
@@ -126,9 +209,21 @@ public class EventBus {
         logNoSubscriberMessages = builder.logNoSubscriberMessages;
         sendSubscriberExceptionEvent = builder.sendSubscriberExceptionEvent;
         sendNoSubscriberEvent = builder.sendNoSubscriberEvent;
+        noSubscriberMessageSampler = builder.noSubscriberMessageIntervalNanos > 0 ?
+                new NoSubscriberSampler(builder.noSubscriberMessageIntervalNanos) : null;
+        noSubscriberEventSampler = builder.noSubscriberEventIntervalNanos > 0 ?
+                new NoSubscriberSampler(builder.noSubscriberEventIntervalNanos) : null;
         throwSubscriberException = builder.throwSubscriberException;
         eventInheritance = builder.eventInheritance;
-        executorService = builder.executorService;
+        queueCapacity = builder.queueCapacity;
+        overflowPolicy = builder.overflowPolicy;
+        queueCapacityPerSubscriber = builder.queueCapacityPerSubscriber;
+        overflowHandler = builder.overflowHandler;
+        if (queueCapacity > 0 && overflowPolicy == OverflowPolicy.CALLBACK && overflowHandler == null) {
+            throw new EventBusException("Overflow policy CALLBACK requires an overflow handler");
+        }
+        mustNotBlock = queueCapacity > 0 && overflowPolicy == OverflowPolicy.BLOCK ?
+                new ThreadLocal<Boolean>() : null;
     }
 
     /**
@@ -140,6 +235,16 @@ public class EventBus {
      * ThreadMode} and priority.
      */
     public void register(Object subscriber) {
+        register(subscriber, null);
+    }
+
+    /**
+     * Like {@link #register(Object)}, but sticky subscriber methods receive only the keyed sticky events of the given
+     * key, instead of all keyed sticky events of their event type (see {@link #postSticky(Object, Object)}). Non-keyed
+     * sticky events are delivered as usual. This only affects the sticky events delivered when registering; events
+     * posted later are delivered regardless of their key.
+     */
+    public void register(Object subscriber, Object stickyKey) {
         if (AndroidDependenciesDetector.isAndroidSDKAvailable() && !AndroidDependenciesDetector.areAndroidComponentsAvailable()) {
             // Crash if the user (developer) has not imported the Android compatibility library.
             throw new RuntimeException("It looks like you are using EventBus on Android, " +
@@ -148,17 +253,42 @@ public class EventBus {
 
         Class<?> subscriberClass = subscriber.getClass();
         List<SubscriberMethod> subscriberMethods = subscriberMethodFinder.findSubscriberMethods(subscriberClass);
-        synchronized (this) {
-            for (SubscriberMethod subscriberMethod : subscriberMethods) {
-                subscribe(subscriber, subscriberMethod);
+        Boolean previous = mustNotBlock != null ? mustNotBlock.get() : null;
+        if (mustNotBlock != null) {
+            // Consumers may need the monitor to free a slot, e.g. to post an event of a new class
+            mustNotBlock.set(Boolean.TRUE);
+        }
+        try {
+            synchronized (this) {
+                for (SubscriberMethod subscriberMethod : subscriberMethods) {
+                    subscribe(subscriber, subscriberMethod, stickyKey);
+                }
+            }
+        } finally {
+            if (mustNotBlock != null) {
+                mustNotBlock.set(previous);
             }
         }
     }
 
     // Must be called in synchronized block
-    private void subscribe(Object subscriber, SubscriberMethod subscriberMethod) {
+    private void subscribe(Object subscriber, SubscriberMethod subscriberMethod, Object stickyKey) {
         Class<?> eventType = subscriberMethod.eventType;
+        ThreadMode threadMode = subscriberMethod.threadMode;
+        checkDeliveryOptions(subscriberMethod);
         Subscription newSubscription = new Subscription(subscriber, subscriberMethod);
+        if (threadMode == ThreadMode.ASYNC_ORDERED) {
+            newSubscription.mailbox = orderedAsyncPoster.getMailbox(subscriber);
+        }
+        if (subscriberMethod.maxBatchSize > 0) {
+            Poster poster = threadMode == ThreadMode.BACKGROUND ? backgroundPoster :
+                    threadMode == ThreadMode.ASYNC ? asyncPoster : orderedAsyncPoster;
+            newSubscription.eventBatch = new EventBatch(this, newSubscription, poster);
+        }
+        if (subscriberMethod.debounceMillis > 0 || subscriberMethod.throttleMillis > 0) {
+            Poster delayedPoster = getDelayedPoster(threadMode);
+            newSubscription.rateLimitedDelivery = new RateLimitedDelivery(this, newSubscription, delayedPoster);
+        }
         CopyOnWriteArrayList<Subscription> subscriptions = subscriptionsByEventType.get(eventType);
         if (subscriptions == null) {
             subscriptions = new CopyOnWriteArrayList<>();
@@ -169,6 +299,8 @@ public class EventBus {
                         + eventType);
             }
         }
+        // After the check above: counts the subscriptions of the limit
+        newSubscription.queueLimit = getQueueLimit(newSubscription);
 
         int size = subscriptions.size();
         for (int i = 0; i <= size; i++) {
@@ -177,6 +309,7 @@ public class EventBus {
                 break;
             }
         }
+        invalidateDispatchTables(eventType);
 
         List<Class<?>> subscribedEvents = typesBySubscriber.get(subscriber);
         if (subscribedEvents == null) {
@@ -186,27 +319,63 @@ public class EventBus {
         subscribedEvents.add(eventType);
 
         if (subscriberMethod.sticky) {
-            if (eventInheritance) {
-                // Existing sticky events of all subclasses of eventType have to be considered.
-                // Note: Iterating over all events may be inefficient with lots of sticky events,
-                // thus data structure should be changed to allow a more efficient lookup
-                // (e.g. an additional map storing sub classes of super classes: Class -> List<Class>).
-                Set<Map.Entry<Class<?>, Object>> entries = stickyEvents.entrySet();
-                for (Map.Entry<Class<?>, Object> entry : entries) {
-                    Class<?> candidateEventType = entry.getKey();
-                    if (eventType.isAssignableFrom(candidateEventType)) {
-                        Object stickyEvent = entry.getValue();
-                        checkPostStickyEventToSubscription(newSubscription, stickyEvent);
-                    }
-                }
-            } else {
-                Object stickyEvent = stickyEvents.get(eventType);
-                checkPostStickyEventToSubscription(newSubscription, stickyEvent);
+            // With eventInheritance, existing sticky events of all subclasses of eventType have to be considered
+            List<StickyEventStore.StoredEvent> entries = new ArrayList<>();
+            stickyEvents.collect(eventType, eventInheritance, stickyKey, entries);
+            for (StickyEventStore.StoredEvent entry : entries) {
+                checkPostStickyEventToSubscription(newSubscription, entry);
             }
         }
     }
 
-    private void checkPostStickyEventToSubscription(Subscription newSubscription, Object stickyEvent) {
+    private static void checkDeliveryOptions(SubscriberMethod subscriberMethod) {
+        ThreadMode threadMode = subscriberMethod.threadMode;
+        String problem = null;
+        if (subscriberMethod.conflate && (threadMode == ThreadMode.POSTING || threadMode == ThreadMode.ASYNC)) {
+            problem = "thread mode " + threadMode + " does not support conflation";
+        } else if (subscriberMethod.maxBatchSize > 0) {
+            if (threadMode != ThreadMode.BACKGROUND && threadMode != ThreadMode.ASYNC &&
+                    threadMode != ThreadMode.ASYNC_ORDERED) {
+                problem = "thread mode " + threadMode + " does not support batches";
+            } else if (subscriberMethod.conflate) {
+                problem = "batches cannot be conflated";
+            } else if (subscriberMethod.batchLingerMillis < 0) {
+                problem = "negative batch linger time";
+            }
+        }
+        if (problem == null && (subscriberMethod.debounceMillis != 0 || subscriberMethod.throttleMillis != 0)) {
+            if (subscriberMethod.debounceMillis < 0 || subscriberMethod.throttleMillis < 0) {
+                problem = "negative debounce or throttle period";
+            } else if (subscriberMethod.debounceMillis > 0 && subscriberMethod.throttleMillis > 0) {
+                problem = "cannot debounce and throttle at the same time";
+            } else if (subscriberMethod.conflate || subscriberMethod.maxBatchSize > 0) {
+                problem = "debounce and throttle cannot be combined with conflation or batches";
+            }
+        }
+        if (problem != null) {
+            throw new EventBusException("Invalid @Subscribe method " + subscriberMethod.declaringClass.getName() +
+                    "." + subscriberMethod.methodName + ": " + problem);
+        }
+    }
+
+    /** The poster delivering events after a timer expired, when the posting thread has moved on already. */
+    private Poster getDelayedPoster(ThreadMode threadMode) {
+        switch (threadMode) {
+            case MAIN:
+            case MAIN_ORDERED:
+                return mainThreadPoster != null ? mainThreadPoster : backgroundPoster;
+            case ASYNC:
+                return asyncPoster;
+            case ASYNC_ORDERED:
+                return orderedAsyncPoster;
+            default:
+                return backgroundPoster;
+        }
+    }
+
+    private void checkPostStickyEventToSubscription(Subscription newSubscription, StickyEventStore.StoredEvent entry) {
+        // Null if the sticky event expired meanwhile; expired sticky events must never be delivered
+        Object stickyEvent = stickyEvents.getEvent(entry);
         if (stickyEvent != null) {
             // If the subscriber is trying to abort the event, it will fail (event is not tracked in posting state)
             // --> Strange corner case, which we don't take care of here.
@@ -214,6 +383,73 @@ public class EventBus {
         }
     }
 
+    /** Must be called synchronized on the EventBus, after the mailbox and batch of the subscription were set up. */
+    // @Nullable
+    private QueueLimit getQueueLimit(Subscription subscription) {
+        Object subscriber = subscription.subscriber;
+        SubscriberMethod subscriberMethod = subscription.subscriberMethod;
+        ThreadMode threadMode = subscriberMethod.threadMode;
+        // Conflating and rate limited subscriptions hold a single event at most; batches take a slot per buffered event
+        if (queueCapacity == 0 || threadMode == ThreadMode.POSTING || subscriberMethod.conflate ||
+                subscriberMethod.debounceMillis > 0 || subscriberMethod.throttleMillis > 0) {
+            return null;
+        }
+        Object key;
+        String name;
+        if (overflowPolicy == OverflowPolicy.DROP_OLDEST) {
+            // Dropping the oldest event of the limit requires the limit to apply to a single queue
+            Object queue;
+            boolean sharedQueue = false;
+            if (subscription.eventBatch != null) {
+                queue = subscription.eventBatch;
+                name = "batched events of " + subscriberMethod.declaringClass.getName() + "." +
+                        subscriberMethod.methodName;
+            } else if (threadMode == ThreadMode.ASYNC_ORDERED) {
+                queue = subscription.mailbox;
+                name = threadMode + " events of " + subscriber.getClass().getName();
+            } else if (threadMode == ThreadMode.BACKGROUND) {
+                int laneIndex = backgroundPoster.getLaneIndex(subscription);
+                queue = backgroundPoster.getLane(laneIndex);
+                sharedQueue = true;
+                name = threadMode + " events of lane " + laneIndex;
+            } else {
+                // MAIN and MAIN_ORDERED share the main thread poster
+                queue = threadMode == ThreadMode.MAIN_ORDERED ? ThreadMode.MAIN : threadMode;
+                sharedQueue = true;
+                name = queue + " events";
+            }
+            if (queueCapacityPerSubscriber && sharedQueue) {
+                key = new SubscriberQueueKey(subscriber, queue);
+                name += " of " + subscriber.getClass().getName();
+            } else {
+                key = queue;
+            }
+        } else if (queueCapacityPerSubscriber) {
+            key = subscriber;
+            name = subscriber.getClass().getName();
+        } else {
+            // MAIN and MAIN_ORDERED share the main thread poster
+            key = threadMode == ThreadMode.MAIN_ORDERED ? ThreadMode.MAIN : threadMode;
+            name = key + " events";
+        }
+        QueueLimit queueLimit = queueLimits.get(key);
+        if (queueLimit == null) {
+            queueLimit = new QueueLimit(key, name, queueCapacity, overflowPolicy, overflowHandler, overflowCount,
+                    logger);
+            queueLimits.put(key, queueLimit);
+        }
+        queueLimit.subscriptionCount++;
+        return queueLimit;
+    }
+
+    /** Must be called synchronized on the EventBus. Events still queued may release the removed limit. */
+    private void releaseQueueLimit(Subscription subscription) {
+        QueueLimit queueLimit = subscription.queueLimit;
+        if (queueLimit != null && --queueLimit.subscriptionCount == 0) {
+            queueLimits.remove(queueLimit.key);
+        }
+    }
+
     /**
      * Checks if the current thread is running in the main thread.
      * If there is no main thread support (e.g. non-Android), "true" is always returned. In that case MAIN thread
@@ -237,14 +473,98 @@ public class EventBus {
                 Subscription subscription = subscriptions.get(i);
                 if (subscription.subscriber == subscriber) {
                     subscription.active = false;
+                    releaseQueueLimit(subscription);
                     subscriptions.remove(i);
                     i--;
                     size--;
                 }
             }
+            invalidateDispatchTables(eventType);
         }
     }
 
+    /** Removes all dispatch tables affected by subscription changes of the given event type. Must be synchronized. */
+    private void invalidateDispatchTables(Class<?> eventType) {
+        if (eventInheritance) {
+            Iterator<Map.Entry<Class<?>, Subscription[]>> tables = subscriptionsByEventClass.entrySet().iterator();
+            while (tables.hasNext()) {
+                Map.Entry<Class<?>, Subscription[]> table = tables.next();
+                if (eventType.isAssignableFrom(table.getKey())) {
+                    tables.remove();
+                    if (table.getValue().length == 0) {
+                        noSubscriberTables--;
+                    }
+                }
+            }
+        } else {
+            Subscription[] table = subscriptionsByEventClass.remove(eventType);
+            if (table != null && table.length == 0) {
+                noSubscriberTables--;
+            }
+        }
+        dispatchTablesModCount++;
+    }
+
+    /** Must be synchronized. */
+    private void removeNoSubscriberTables() {
+        Iterator<Subscription[]> tables = subscriptionsByEventClass.values().iterator();
+        while (tables.hasNext()) {
+            if (tables.next().length == 0) {
+                tables.remove();
+            }
+        }
+        noSubscriberTables = 0;
+        // Posting threads may still reuse a removed table, which is fine: it is still valid
+    }
+
+    /**
+     * Gets all subscriptions for the given concrete event class, ordered by priority. The returned array is shared and
+     * must not be modified.
+     */
+    private Subscription[] getDispatchTable(Class<?> eventClass) {
+        Subscription[] subscriptions = subscriptionsByEventClass.get(eventClass);
+        if (subscriptions == null) {
+            // Build while holding the lock to prevent publishing a table that was just invalidated
+            synchronized (this) {
+                subscriptions = subscriptionsByEventClass.get(eventClass);
+                if (subscriptions == null) {
+                    subscriptions = buildDispatchTable(eventClass);
+                    if (subscriptions.length == 0) {
+                        if (noSubscriberTables == MAX_NO_SUBSCRIBER_TABLES) {
+                            removeNoSubscriberTables();
+                        }
+                        noSubscriberTables++;
+                    }
+                    subscriptionsByEventClass.put(eventClass, subscriptions);
+                }
+            }
+        }
+        return subscriptions;
+    }
+
+    // Must be called in synchronized block
+    private Subscription[] buildDispatchTable(Class<?> eventClass) {
+        if (!eventInheritance) {
+            CopyOnWriteArrayList<Subscription> subscriptions = subscriptionsByEventType.get(eventClass);
+            return subscriptions != null ? subscriptions.toArray(NO_SUBSCRIPTIONS) : NO_SUBSCRIPTIONS;
+        }
+        List<Subscription> merged = new ArrayList<>();
+        Class<?>[] eventTypes = lookupAllEventTypes(eventClass);
+        for (Class<?> eventType : eventTypes) {
+            CopyOnWriteArrayList<Subscription> subscriptions = subscriptionsByEventType.get(eventType);
+            if (subscriptions != null) {
+                merged.addAll(subscriptions);
+            }
+        }
+        if (merged.isEmpty()) {
+            return NO_SUBSCRIPTIONS;
+        }
+        Subscription[] table = merged.toArray(new Subscription[merged.size()]);
+        // Stable sort: same priority keeps the order of the type hierarchy and of registration
+        Arrays.sort(table, PRIORITY_ORDER);
+        return table;
+    }
+
     /** Unregisters the given subscriber from all event classes. */
     public synchronized void unregister(Object subscriber) {
         List<Class<?>> subscribedTypes = typesBySubscriber.get(subscriber);
@@ -253,6 +573,7 @@ public class EventBus {
                 unsubscribeByEventType(subscriber, eventType);
             }
             typesBySubscriber.remove(subscriber);
+            orderedAsyncPoster.removeMailbox(subscriber);
         } else {
             logger.log(Level.WARNING, "Subscriber to unregister was not registered before: " + subscriber.getClass());
         }
@@ -260,27 +581,107 @@ public class EventBus {
 
     /** Posts the given event to the event bus. */
     public void post(Object event) {
-        PostingThreadState postingState = currentPostingThreadState.get();
-        List<Object> eventQueue = postingState.eventQueue;
-        eventQueue.add(event);
+        PostingThreadState postingState = getPostingState();
+        if (postingState.isPosting) {
+            // Delivered after the current event
+            postingState.enqueue(event);
+        } else {
+            startPosting(postingState);
+            try {
+                postAndDrain(event, postingState);
+            } finally {
+                stopPosting(postingState);
+            }
+        }
+    }
 
-        if (!postingState.isPosting) {
-            postingState.isMainThread = isMainThread();
-            postingState.isPosting = true;
-            if (postingState.canceled) {
-                throw new EventBusException("Internal error. Abort state was not reset");
+    /**
+     * Posts the given events in their order. Delivery is the same as calling {@link #post(Object)} for each event,
+     * e.g. events posted by subscribers are delivered before the next event of the given ones. However, the posting
+     * state is set up only once and consecutive events of the same class share the subscriber lookup, which reduces
+     * the overhead per event considerably when posting many events at once.
+     */
+    public void postAll(Collection<?> events) {
+        PostingThreadState postingState = getPostingState();
+        if (postingState.isPosting) {
+            // Just like nested calls to post(), the events are delivered after the current one
+            for (Object event : events) {
+                postingState.enqueue(event);
             }
+        } else {
+            startPosting(postingState);
             try {
-                while (!eventQueue.isEmpty()) {
-                    postSingleEvent(eventQueue.remove(0), postingState);
+                for (Object event : events) {
+                    postAndDrain(event, postingState);
                 }
             } finally {
-                postingState.isPosting = false;
-                postingState.isMainThread = false;
+                stopPosting(postingState);
+            }
+        }
+    }
+
+    /** Posts the given events in their order, see {@link #postAll(Collection)}. */
+    public void postAll(Object... events) {
+        postAll(Arrays.asList(events));
+    }
+
+    /** With pooled posting states, the returned state is borrowed until {@link #stopPosting(PostingThreadState)}. */
+    private PostingThreadState getPostingState() {
+        PostingThreadState postingState = currentPostingThreadState.get();
+        if (postingState == null) {
+            postingState = postingStatePool.obtain();
+            currentPostingThreadState.set(postingState);
+        }
+        return postingState;
+    }
+
+    private void startPosting(PostingThreadState postingState) {
+        postingState.isMainThread = isMainThread();
+        postingState.isPosting = true;
+        if (postingState.canceled) {
+            throw new EventBusException("Internal error. Abort state was not reset");
+        }
+    }
+
+    /** Posts the event and all events posted by its subscribers, which are queued meanwhile. */
+    private void postAndDrain(Object event, PostingThreadState postingState) {
+        Queue<Object> eventQueue = postingState.eventQueue;
+        if (eventQueue == null || eventQueue.isEmpty()) {
+            // Common case: no need to go through the queue
+            postSingleEvent(event, postingState);
+        } else {
+            // Left over by a subscriber exception, deliver in order
+            eventQueue.add(event);
+        }
+        postQueuedEvents(postingState);
+    }
+
+    private void postQueuedEvents(PostingThreadState postingState) {
+        Queue<Object> eventQueue = postingState.eventQueue;
+        if (eventQueue != null) {
+            while (!eventQueue.isEmpty()) {
+                postSingleEvent(eventQueue.poll(), postingState);
             }
         }
     }
 
+    private void stopPosting(PostingThreadState postingState) {
+        postingState.isPosting = false;
+        postingState.isMainThread = false;
+        // Do not keep subscribers reachable after posting
+        postingState.lastEventClass = null;
+        postingState.lastSubscriptions = null;
+        if (postingStatePool != null) {
+            // Unlike remove(), keeps the thread's entry, so posting again does not allocate a new one
+            currentPostingThreadState.set(null);
+            if (postingState.eventQueue != null) {
+                // Do not deliver events left over by a subscriber exception in another thread
+                postingState.eventQueue.clear();
+            }
+            postingStatePool.release(postingState);
+        }
+    }
+
     /**
      * Called from a subscriber's event handling method, further event delivery will be canceled. Subsequent
      * subscribers
@@ -290,7 +691,7 @@ public class EventBus {
      */
     public void cancelEventDelivery(Object event) {
         PostingThreadState postingState = currentPostingThreadState.get();
-        if (!postingState.isPosting) {
+        if (postingState == null || !postingState.isPosting) {
             throw new EventBusException(
                     "This method may only be called from inside event handling methods on the posting thread");
         } else if (event == null) {
@@ -304,27 +705,165 @@ public class EventBus {
         postingState.canceled = true;
     }
 
+    /**
+     * Posts the given event after the given delay. The event is posted using {@link #post(Object)} in the timer thread
+     * of this bus, so it is delivered according to the thread modes of its subscribers. As in the background thread,
+     * {@link ThreadMode#POSTING} subscribers of delayed events should return quickly to not delay other events.
+     * <p>
+     * Events are scheduled on a timing wheel with a resolution of 10 ms: events may be posted up to 10 ms late
+     * (or later if the timer thread falls behind). Events scheduled for the same time are posted in scheduling order.
+     *
+     * @return handle to cancel posting the event
+     */
+    public ScheduledPost postDelayed(Object event, long delay, TimeUnit unit) {
+        if (event == null) {
+            throw new EventBusException("Event may not be null");
+        }
+        return getTimerWheel().schedule(event, unit.toNanos(delay));
+    }
+
+    /**
+     * Like {@link #postDelayed(Object, long, TimeUnit)}, but posts the event at the given time in milliseconds since
+     * the epoch (see {@link System#currentTimeMillis()}). Events for a time in the past are posted right away.
+     */
+    public ScheduledPost postAt(Object event, long timeMillis) {
+        return postDelayed(event, timeMillis - System.currentTimeMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    /** The timer thread of this bus, which is started on first use. */
+    HashedTimerWheel getTimerWheel() {
+        HashedTimerWheel wheel = timerWheel;
+        if (wheel == null) {
+            synchronized (this) {
+                wheel = timerWheel;
+                if (wheel == null) {
+                    wheel = timerWheel = new HashedTimerWheel(this);
+                }
+            }
+        }
+        return wheel;
+    }
+
     /**
      * Posts the given event to the event bus and holds on to the event (because it is sticky). The most recent sticky
      * event of an event's type is kept in memory for future access by subscribers using {@link Subscribe#sticky()}.
      */
     public void postSticky(Object event) {
-        synchronized (stickyEvents) {
-            stickyEvents.put(event.getClass(), event);
+        stickyEvents.put(event);
+        // Should be posted after it is putted, in case the subscriber wants to remove immediately
+        post(event);
+    }
+
+    /**
+     * Posts the given event and holds on to it as a keyed sticky event: the most recent sticky event is kept per event
+     * class and key (e.g. the latest status per device), independent of the non-keyed sticky event of the class (see
+     * {@link #postSticky(Object)}). Keys must implement equals and hashCode.
+     * <p>
+     * Sticky subscriber methods receive all keyed sticky events of their event type when registered, or only the ones
+     * of a single key if registered using {@link #register(Object, Object)}.
+     */
+    public void postSticky(Object event, Object key) {
+        if (key == null) {
+            throw new EventBusException("Key may not be null");
         }
+        stickyEvents.putKeyed(key, event);
         // Should be posted after it is putted, in case the subscriber wants to remove immediately
         post(event);
     }
 
+    /**
+     * Gets the most recent keyed sticky event for the given type and key.
+     *
+     * @see #postSticky(Object, Object)
+     */
+    public <T> T getStickyEvent(Class<T> eventType, Object key) {
+        return eventType.cast(stickyEvents.getKeyed(eventType, key));
+    }
+
+    /**
+     * Gets the keyed sticky events of the given type by their key. The returned map is an unmodifiable, live view,
+     * which may be iterated while sticky events are updated concurrently; expired sticky events are left out. If a time
+     * to live applies to the type, size() checks each sticky event, so it takes time proportional to the key count.
+     *
+     * @see #postSticky(Object, Object)
+     */
+    @SuppressWarnings("unchecked")
+    public <T> Map<Object, T> getStickyEventsByKey(Class<T> eventType) {
+        Map<Object, Object> eventsByKey = stickyEvents.getKeyedEvents(eventType);
+        if (eventsByKey == null) {
+            return Collections.emptyMap();
+        }
+        return (Map<Object, T>) Collections.unmodifiableMap(eventsByKey);
+    }
+
+    /**
+     * Removes and gets the keyed sticky event for the given event type and key.
+     *
+     * @see #postSticky(Object, Object)
+     */
+    public <T> T removeStickyEvent(Class<T> eventType, Object key) {
+        return eventType.cast(stickyEvents.removeKeyed(eventType, key));
+    }
+
+    /**
+     * Atomically replaces the sticky event of the update's class and posts the update, but only if the current sticky
+     * event equals the expected one. This allows concurrent producers to update a sticky event without losing updates
+     * of each other.
+     *
+     * @param expected the expected current sticky event, or null if there should be no sticky event of the class yet
+     * @return true if the update was stored and posted; false if the current sticky event was another one
+     * @see #updateSticky(Class, StickyEventUpdater)
+     */
+    public boolean compareAndSetSticky(Object expected, Object update) {
+        if (update == null) {
+            throw new EventBusException("Event may not be null");
+        }
+        if (stickyEvents.compareAndSet(expected, update)) {
+            post(update);
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Atomically updates the sticky event of the given class using the given updater, retrying if another thread
+     * changed the sticky event concurrently. A non-null new sticky event is posted like {@link #postSticky(Object)},
+     * null removes the sticky event.
+     *
+     * @return the new sticky event, or null if it was removed
+     */
+    public <T> T updateSticky(Class<T> eventType, StickyEventUpdater<T> updater) {
+        T update = stickyEvents.update(eventType, updater);
+        if (update != null) {
+            post(update);
+        }
+        return update;
+    }
+
     /**
      * Gets the most recent sticky event for the given type.
      *
      * @see #postSticky(Object)
      */
     public <T> T getStickyEvent(Class<T> eventType) {
-        synchronized (stickyEvents) {
-            return eventType.cast(stickyEvents.get(eventType));
+        return eventType.cast(stickyEvents.get(eventType));
+    }
+
+    /**
+     * Gets the most recent sticky events of the given type and all of its subtypes (sub classes and implementations of
+     * interfaces), one per event class; e.g. for an interface, the most recent sticky event of each class implementing
+     * it. This does not iterate over all sticky events.
+     *
+     * @return the sticky events in no particular order, or an empty list
+     * @see #postSticky(Object)
+     */
+    public <T> List<T> getStickyEvents(Class<T> eventType) {
+        List<Object> events = stickyEvents.getAssignableTo(eventType);
+        List<T> result = new ArrayList<>(events.size());
+        for (Object event : events) {
+            result.add(eventType.cast(event));
         }
+        return result;
     }
 
     /**
@@ -333,9 +872,7 @@ public class EventBus {
      * @see #postSticky(Object)
      */
     public <T> T removeStickyEvent(Class<T> eventType) {
-        synchronized (stickyEvents) {
-            return eventType.cast(stickyEvents.remove(eventType));
-        }
+        return eventType.cast(stickyEvents.remove(eventType));
     }
 
     /**
@@ -344,40 +881,22 @@ public class EventBus {
      * @return true if the events matched and the sticky event was removed.
      */
     public boolean removeStickyEvent(Object event) {
-        synchronized (stickyEvents) {
-            Class<?> eventType = event.getClass();
-            Object existingEvent = stickyEvents.get(eventType);
-            if (event.equals(existingEvent)) {
-                stickyEvents.remove(eventType);
-                return true;
-            } else {
-                return false;
-            }
-        }
+        return stickyEvents.remove(event);
     }
 
     /**
-     * Removes all sticky events.
+     * Removes all sticky events, keyed ones included.
      */
     public void removeAllStickyEvents() {
-        synchronized (stickyEvents) {
-            stickyEvents.clear();
-        }
+        stickyEvents.clear();
     }
 
     public boolean hasSubscriberForEvent(Class<?> eventClass) {
-        List<Class<?>> eventTypes = lookupAllEventTypes(eventClass);
-        if (eventTypes != null) {
-            int countTypes = eventTypes.size();
-            for (int h = 0; h < countTypes; h++) {
-                Class<?> clazz = eventTypes.get(h);
-                CopyOnWriteArrayList<Subscription> subscriptions;
-                synchronized (this) {
-                    subscriptions = subscriptionsByEventType.get(clazz);
-                }
-                if (subscriptions != null && !subscriptions.isEmpty()) {
-                    return true;
-                }
+        Class<?>[] eventTypes = lookupAllEventTypes(eventClass);
+        for (Class<?> clazz : eventTypes) {
+            CopyOnWriteArrayList<Subscription> subscriptions = subscriptionsByEventType.get(clazz);
+            if (subscriptions != null && !subscriptions.isEmpty()) {
+                return true;
             }
         }
         return false;
@@ -385,56 +904,73 @@ public class EventBus {
 
     private void postSingleEvent(Object event, PostingThreadState postingState) throws Error {
         Class<?> eventClass = event.getClass();
-        boolean subscriptionFound = false;
-        if (eventInheritance) {
-            List<Class<?>> eventTypes = lookupAllEventTypes(eventClass);
-            int countTypes = eventTypes.size();
-            for (int h = 0; h < countTypes; h++) {
-                Class<?> clazz = eventTypes.get(h);
-                subscriptionFound |= postSingleEventForEventType(event, postingState, clazz);
-            }
+        Subscription[] subscriptions;
+        int modCount = dispatchTablesModCount;
+        if (eventClass == postingState.lastEventClass && modCount == postingState.lastModCount) {
+            subscriptions = postingState.lastSubscriptions;
         } else {
-            subscriptionFound = postSingleEventForEventType(event, postingState, eventClass);
+            subscriptions = getDispatchTable(eventClass);
+            postingState.lastEventClass = eventClass;
+            postingState.lastSubscriptions = subscriptions;
+            postingState.lastModCount = modCount;
         }
-        if (!subscriptionFound) {
-            if (logNoSubscriberMessages) {
+        if (subscriptions.length > 0) {
+            postToSubscriptions(event, postingState, subscriptions);
+        } else {
+            // The dispatch table caches the absence of subscribers until the next register
+            handleNoSubscriber(event, eventClass);
+        }
+    }
+
+    private void handleNoSubscriber(Object event, Class<?> eventClass) {
+        if (logNoSubscriberMessages) {
+            long suppressed = noSubscriberMessageSampler != null ?
+                    noSubscriberMessageSampler.sample(eventClass) : 0;
+            if (suppressed > 0) {
+                logger.log(Level.FINE, "No subscribers registered for event " + eventClass + " (" + suppressed +
+                        " more since last message)");
+            } else if (suppressed == 0) {
                 logger.log(Level.FINE, "No subscribers registered for event " + eventClass);
             }
-            if (sendNoSubscriberEvent && eventClass != NoSubscriberEvent.class &&
-                    eventClass != SubscriberExceptionEvent.class) {
+        }
+        if (sendNoSubscriberEvent && eventClass != NoSubscriberEvent.class &&
+                eventClass != SubscriberExceptionEvent.class) {
+            if (noSubscriberEventSampler == null ||
+                    noSubscriberEventSampler.sample(eventClass) != NoSubscriberSampler.SUPPRESSED) {
                 post(new NoSubscriberEvent(this, event));
             }
         }
     }
 
-    private boolean postSingleEventForEventType(Object event, PostingThreadState postingState, Class<?> eventClass) {
-        CopyOnWriteArrayList<Subscription> subscriptions;
-        synchronized (this) {
-            subscriptions = subscriptionsByEventType.get(eventClass);
+    private void postToSubscriptions(Object event, PostingThreadState postingState, Subscription[] subscriptions) {
+        if (parallelFanOut != null && subscriptions.length >= parallelFanOut.minSubscriptions) {
+            parallelFanOut.post(event, subscriptions, postingState.isMainThread);
+            return;
         }
-        if (subscriptions != null && !subscriptions.isEmpty()) {
-            for (Subscription subscription : subscriptions) {
-                postingState.event = event;
-                postingState.subscription = subscription;
-                boolean aborted;
-                try {
-                    postToSubscription(subscription, event, postingState.isMainThread);
-                    aborted = postingState.canceled;
-                } finally {
-                    postingState.event = null;
-                    postingState.subscription = null;
-                    postingState.canceled = false;
-                }
-                if (aborted) {
-                    break;
-                }
+        for (Subscription subscription : subscriptions) {
+            postingState.event = event;
+            postingState.subscription = subscription;
+            boolean aborted;
+            try {
+                postToSubscription(subscription, event, postingState.isMainThread);
+                aborted = postingState.canceled;
+            } finally {
+                postingState.event = null;
+                postingState.subscription = null;
+                postingState.canceled = false;
+            }
+            if (aborted) {
+                break;
             }
-            return true;
         }
-        return false;
     }
 
-    private void postToSubscription(Subscription subscription, Object event, boolean isMainThread) {
+    void postToSubscription(Subscription subscription, Object event, boolean isMainThread) {
+        RateLimitedDelivery rateLimitedDelivery = subscription.rateLimitedDelivery;
+        if (rateLimitedDelivery != null && !rateLimitedDelivery.offer(event)) {
+            // Delivered later, if not replaced by a newer event
+            return;
+        }
         switch (subscription.subscriberMethod.threadMode) {
             case POSTING:
                 invokeSubscriber(subscription, event);
@@ -443,58 +979,131 @@ public class EventBus {
                 if (isMainThread) {
                     invokeSubscriber(subscription, event);
                 } else {
-                    mainThreadPoster.enqueue(subscription, event);
+                    enqueue(mainThreadPoster, subscription, event, isMainThread);
                 }
                 break;
             case MAIN_ORDERED:
                 if (mainThreadPoster != null) {
-                    mainThreadPoster.enqueue(subscription, event);
+                    enqueue(mainThreadPoster, subscription, event, isMainThread);
                 } else {
                     // temporary: technically not correct as poster not decoupled from subscriber
                     invokeSubscriber(subscription, event);
                 }
                 break;
             case BACKGROUND:
-                if (isMainThread) {
-                    backgroundPoster.enqueue(subscription, event);
+                if (isMainThread || subscription.eventBatch != null) {
+                    enqueue(backgroundPoster, subscription, event, isMainThread);
                 } else {
                     invokeSubscriber(subscription, event);
                 }
                 break;
             case ASYNC:
-                asyncPoster.enqueue(subscription, event);
+                enqueue(asyncPoster, subscription, event, isMainThread);
+                break;
+            case ASYNC_ORDERED:
+                enqueue(orderedAsyncPoster, subscription, event, isMainThread);
                 break;
             default:
                 throw new IllegalStateException("Unknown thread mode: " + subscription.subscriberMethod.threadMode);
         }
     }
 
-    /** Looks up all Class objects including super classes and interfaces. Should also work for interfaces. */
-    private static List<Class<?>> lookupAllEventTypes(Class<?> eventClass) {
-        synchronized (eventTypesCache) {
-            List<Class<?>> eventTypes = eventTypesCache.get(eventClass);
-            if (eventTypes == null) {
-                eventTypes = new ArrayList<>();
-                Class<?> clazz = eventClass;
-                while (clazz != null) {
-                    eventTypes.add(clazz);
-                    addInterfaces(eventTypes, clazz.getInterfaces());
-                    clazz = clazz.getSuperclass();
+    private void enqueue(Poster poster, Subscription subscription, Object event, boolean isMainThread) {
+        EventBatch eventBatch = subscription.eventBatch;
+        if (eventBatch != null) {
+            int acquired = acquireQueueSlot(subscription, event, isMainThread);
+            if (acquired != QueueLimit.REJECTED) {
+                // Queues a pending post for the batch if required
+                eventBatch.add(event, acquired == QueueLimit.ACQUIRED_DROP_OLDEST);
+            }
+            return;
+        }
+        AtomicReference<Object> conflatedEvent = subscription.conflatedEvent;
+        if (conflatedEvent != null) {
+            if (conflatedEvent.getAndSet(event) != null) {
+                // Replaced an event not delivered yet; its pending delivery takes this one instead
+                return;
+            }
+        } else {
+            int acquired = acquireQueueSlot(subscription, event, isMainThread);
+            if (acquired == QueueLimit.REJECTED) {
+                return;
+            } else if (acquired == QueueLimit.ACQUIRED_DROP_OLDEST) {
+                if (poster instanceof DropOldestPoster) {
+                    ((DropOldestPoster) poster).enqueue(subscription, event, true);
+                } else {
+                    // Cannot drop from the queue of this poster, so drop the newest event (the overflow was counted)
+                    subscription.queueLimit.release();
                 }
-                eventTypesCache.put(eventClass, eventTypes);
+                return;
             }
-            return eventTypes;
         }
+        poster.enqueue(subscription, event);
     }
 
-    /** Recurses through super interfaces. */
-    static void addInterfaces(List<Class<?>> eventTypes, Class<?>[] interfaces) {
-        for (Class<?> interfaceClass : interfaces) {
-            if (!eventTypes.contains(interfaceClass)) {
-                eventTypes.add(interfaceClass);
-                addInterfaces(eventTypes, interfaceClass.getInterfaces());
+    /** @return one of the results of {@link QueueLimit#acquire(Subscription, Object, boolean)} */
+    private int acquireQueueSlot(Subscription subscription, Object event, boolean isMainThread) {
+        QueueLimit queueLimit = subscription.queueLimit;
+        if (queueLimit == null) {
+            return QueueLimit.ACQUIRED;
+        }
+        // Without main thread support, all threads are considered the main thread
+        boolean onMainThread = isMainThread && mainThreadSupport != null;
+        boolean mayBlock = !onMainThread && (mustNotBlock == null || mustNotBlock.get() == null);
+        return queueLimit.acquire(subscription, event, mayBlock);
+    }
+
+    /** Looks up all Class objects including super classes and interfaces. Should also work for interfaces. */
+    static Class<?>[] lookupAllEventTypes(Class<?> eventClass) {
+        return eventTypesCache.get(eventClass);
+    }
+
+    /**
+     * Calls a POSTING subscriber for {@link ParallelFanOut}, which may be in another thread than the posting one. Sets
+     * up the posting state, so the subscriber may cancel the event delivery and post events itself (delivered before
+     * returning).
+     *
+     * @return true if the subscriber canceled the event delivery
+     */
+    boolean invokeSubscriberInFanOut(Subscription subscription, Object event) {
+        PostingThreadState postingState = getPostingState();
+        // A fork/join thread may run this while it waits for another fan-out, so restore the posting state afterwards
+        boolean wasPosting = postingState.isPosting;
+        Object previousEvent = postingState.event;
+        Subscription previousSubscription = postingState.subscription;
+        boolean previousCanceled = postingState.canceled;
+        if (!wasPosting) {
+            startPosting(postingState);
+        }
+        postingState.event = event;
+        postingState.subscription = subscription;
+        postingState.canceled = false;
+        boolean canceled;
+        try {
+            invokeSubscriber(subscription, event);
+            canceled = postingState.canceled;
+            postingState.event = null;
+            postingState.subscription = null;
+            postingState.canceled = false;
+            if (!wasPosting) {
+                postQueuedEvents(postingState);
+            }
+        } finally {
+            postingState.event = previousEvent;
+            postingState.subscription = previousSubscription;
+            postingState.canceled = previousCanceled;
+            if (!wasPosting) {
+                stopPosting(postingState);
             }
         }
+        return canceled;
+    }
+
+    /** For posters: pending posts are released once the event is delivered by {@link #invokeSubscriber(PendingPost)}. */
+    PendingPost obtainPendingPost(Subscription subscription, Object event, boolean dropsOldest) {
+        PendingPost pendingPost = pendingPostPool.obtain(subscription, event);
+        pendingPost.dropsOldest = dropsOldest;
+        return pendingPost;
     }
 
     /**
@@ -506,19 +1115,53 @@ public class EventBus {
     void invokeSubscriber(PendingPost pendingPost) {
         Object event = pendingPost.event;
         Subscription subscription = pendingPost.subscription;
-        PendingPost.releasePendingPost(pendingPost);
+        boolean dropped = pendingPost.dropped;
+        pendingPostPool.release(pendingPost);
+        QueueLimit queueLimit = subscription.queueLimit;
+        if (queueLimit != null && subscription.eventBatch == null) {
+            // Slots of batched events are released by EventBatch.drain()
+            queueLimit.release();
+        }
+        if (dropped) {
+            return;
+        }
+        if (subscription.conflatedEvent != null) {
+            event = subscription.conflatedEvent.getAndSet(null);
+        } else if (subscription.eventBatch != null) {
+            event = subscription.eventBatch.drain();
+        }
         if (subscription.active) {
-            invokeSubscriber(subscription, event);
+            if (mustNotBlock == null) {
+                invokeSubscriber(subscription, event);
+            } else {
+                Boolean previous = mustNotBlock.get();
+                mustNotBlock.set(Boolean.TRUE);
+                try {
+                    invokeSubscriber(subscription, event);
+                } finally {
+                    mustNotBlock.set(previous);
+                }
+            }
         }
     }
 
     void invokeSubscriber(Subscription subscription, Object event) {
-        try {
-            subscription.subscriberMethod.method.invoke(subscription.subscriber, event);
-        } catch (InvocationTargetException e) {
-            handleSubscriberException(subscription, event, e.getCause());
-        } catch (IllegalAccessException e) {
-            throw new IllegalStateException("Unexpected exception", e);
+        SubscriberInvoker invoker = subscription.subscriberMethod.invoker;
+        if (invoker != null) {
+            try {
+                invoker.invoke(subscription.subscriber, event);
+            } catch (Throwable th) {
+                // Same as the cause of InvocationTargetException for reflection
+                handleSubscriberException(subscription, event, th);
+            }
+        } else {
+            try {
+                subscription.subscriberMethod.method.invoke(subscription.subscriber, event);
+            } catch (InvocationTargetException e) {
+                handleSubscriberException(subscription, event, e.getCause());
+            } catch (IllegalAccessException e) {
+                throw new IllegalStateException("Unexpected exception", e);
+            }
         }
     }
 
@@ -548,18 +1191,153 @@ public class EventBus {
         }
     }
 
+    /** Key of a queue limit per subscriber and queue, see {@link #getQueueLimit(Subscription)}. */
+    private static final class SubscriberQueueKey {
+        final Object subscriber;
+        final Object queue;
+
+        SubscriberQueueKey(Object subscriber, Object queue) {
+            this.subscriber = subscriber;
+            this.queue = queue;
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            if (!(other instanceof SubscriberQueueKey)) {
+                return false;
+            }
+            SubscriberQueueKey otherKey = (SubscriberQueueKey) other;
+            return subscriber.equals(otherKey.subscriber) && queue.equals(otherKey.queue);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * subscriber.hashCode() + queue.hashCode();
+        }
+    }
+
     /** For ThreadLocal, much faster to set (and get multiple values). */
     final static class PostingThreadState {
-        final List<Object> eventQueue = new ArrayList<>();
+        /** Only created once a subscriber posts an event itself. */
+        Queue<Object> eventQueue;
         boolean isPosting;
         boolean isMainThread;
         Subscription subscription;
         Object event;
         boolean canceled;
+        /** Dispatch table of the last event class, valid while posting and unless dispatchTablesModCount changed. */
+        Class<?> lastEventClass;
+        Subscription[] lastSubscriptions;
+        int lastModCount;
+
+        void enqueue(Object event) {
+            if (eventQueue == null) {
+                eventQueue = new ArrayDeque<>();
+            }
+            eventQueue.add(event);
+        }
+    }
+
+    /**
+     * Lock-free pool of posting states, which are borrowed for the duration of posting only. Avoids keeping a posting
+     * state per thread, e.g. for threads that post just once. Holds a state per stripe at most.
+     */
+    static final class PostingStatePool {
+        private final AtomicReferenceArray<PostingThreadState> states =
+                new AtomicReferenceArray<>(StripedCounter.stripeCount());
+
+        PostingThreadState obtain() {
+            int index = StripedCounter.currentStripe(states.length());
+            PostingThreadState postingState = states.getAndSet(index, null);
+            return postingState != null ? postingState : new PostingThreadState();
+        }
+
+        void release(PostingThreadState postingState) {
+            int index = StripedCounter.currentStripe(states.length());
+            // If the slot is taken, the state is left to the garbage collector
+            states.compareAndSet(index, null, postingState);
+        }
+    }
+
+    /** How many times a pooled object was reused to queue an event, see {@link PendingPostPooling}. */
+    public long getPendingPostPoolHits() {
+        return pendingPostPool.hits.get();
+    }
+
+    /**
+     * How many events did not fit into a full queue and were dropped or handed to the overflow handler, see
+     * {@link EventBusBuilder#queueCapacity(int, OverflowPolicy)}.
+     */
+    public long getOverflowCount() {
+        return overflowCount.get();
+    }
+
+    /** Number of sticky events currently held, keyed ones included. */
+    public int getStickyEventCount() {
+        return stickyEvents.getCount();
+    }
+
+    /**
+     * Approximate memory held by sticky events as estimated by the sizer given to
+     * {@link EventBusBuilder#maxStickyEventBytes(long, StickyEventSizer)}, or 0 without a sizer.
+     */
+    public long getStickyEventBytes() {
+        return stickyEvents.getBytes();
+    }
+
+    /**
+     * How many sticky events were removed because they expired, see
+     * {@link EventBusBuilder#stickyEventTimeToLive(Class, long, TimeUnit)}.
+     */
+    public long getExpiredStickyEventCount() {
+        return stickyEvents.expiredCount.get();
     }
 
-    ExecutorService getExecutorService() {
-        return executorService;
+    /**
+     * How many sticky events were evicted to stay within the limits of {@link EventBusBuilder#maxStickyEvents(int)}
+     * and {@link EventBusBuilder#maxStickyEventBytes(long, StickyEventSizer)}.
+     */
+    public long getEvictedStickyEventCount() {
+        return stickyEvents.evictedCount.get();
+    }
+
+    /** How many times an object was allocated to queue an event, see {@link PendingPostPooling}. */
+    public long getPendingPostPoolMisses() {
+        return pendingPostPool.misses.get();
+    }
+
+    /**
+     * Number of threads currently delivering events of the given thread mode, or -1 if unknown: the thread mode does
+     * not use an executor service, or the executor service is not a {@link ThreadPoolExecutor}. Note that the default
+     * executor service for {@link ThreadMode#ASYNC} and {@link ThreadMode#ASYNC_ORDERED} is shared by all EventBus
+     * instances.
+     */
+    public int getActiveThreadCount(ThreadMode threadMode) {
+        ExecutorService executor = getExecutorService(threadMode);
+        return executor instanceof ThreadPoolExecutor ? ((ThreadPoolExecutor) executor).getActiveCount() : -1;
+    }
+
+    /**
+     * Number of tasks waiting for a thread of the executor service used by the given thread mode, or -1 if unknown
+     * (see {@link #getActiveThreadCount(ThreadMode)}). For {@link ThreadMode#BACKGROUND}, a task is a lane having
+     * events.
+     */
+    public int getQueuedTaskCount(ThreadMode threadMode) {
+        ExecutorService executor = getExecutorService(threadMode);
+        return executor instanceof ThreadPoolExecutor ? ((ThreadPoolExecutor) executor).getQueue().size() : -1;
+    }
+
+    // @Nullable
+    ExecutorService getExecutorService(ThreadMode threadMode) {
+        switch (threadMode) {
+            case BACKGROUND:
+                return backgroundExecutorService;
+            case ASYNC:
+            case ASYNC_ORDERED:
+                return asyncExecutorService;
+            default:
+                return null;
+        }
     }
 
     /**
@@ -18,9 +18,16 @@ package org.greenrobot.eventbus;
 import org.greenrobot.eventbus.android.AndroidComponents;
 import org.greenrobot.eventbus.meta.SubscriberInfoIndex;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * Creates EventBus instances with custom parameters and also allows to install a custom default EventBus instance.
@@ -28,17 +35,38 @@ import java.util.concurrent.Executors;
  */
 @SuppressWarnings("unused")
 public class EventBusBuilder {
-    private final static ExecutorService DEFAULT_EXECUTOR_SERVICE = Executors.newCachedThreadPool();
+    private final static int DEFAULT_ASYNC_THREADS = Math.max(4, 2 * Runtime.getRuntime().availableProcessors());
+    private final static ExecutorService DEFAULT_ASYNC_EXECUTOR_SERVICE =
+            newBoundedExecutorService("EventBus-async", DEFAULT_ASYNC_THREADS);
 
     boolean logSubscriberExceptions = true;
     boolean logNoSubscriberMessages = true;
     boolean sendSubscriberExceptionEvent = true;
     boolean sendNoSubscriberEvent = true;
+    long noSubscriberMessageIntervalNanos;
+    long noSubscriberEventIntervalNanos;
     boolean throwSubscriberException;
     boolean eventInheritance = true;
     boolean ignoreGeneratedIndex;
     boolean strictMethodVerification;
-    ExecutorService executorService = DEFAULT_EXECUTOR_SERVICE;
+    // @Nullable: a bounded one sized to the lanes is created for each EventBus
+    ExecutorService backgroundExecutorService;
+    ExecutorService asyncExecutorService = DEFAULT_ASYNC_EXECUTOR_SERVICE;
+    WaitStrategy waitStrategy = WaitStrategy.BLOCK;
+    int backgroundLanes = 1;
+    boolean backgroundLanesByEventType;
+    boolean pooledPostingState;
+    ForkJoinPool fanOutPool;
+    int fanOutMinSubscriptions;
+    PendingPostPooling pendingPostPooling = PendingPostPooling.STRIPED;
+    int queueCapacity;
+    OverflowPolicy overflowPolicy = OverflowPolicy.BLOCK;
+    boolean queueCapacityPerSubscriber;
+    OverflowHandler overflowHandler;
+    Map<Class<?>, Long> stickyTimeToLiveNanos;
+    int maxStickyEvents;
+    long maxStickyEventBytes;
+    StickyEventSizer stickyEventSizer;
     List<Class<?>> skipMethodVerificationForClasses;
     List<SubscriberInfoIndex> subscriberInfoIndexes;
     Logger logger;
@@ -71,6 +99,25 @@ public class EventBusBuilder {
         return this;
     }
 
+    /**
+     * Logs the "no subscribers" message at most once per event class within the given interval; the next message
+     * includes how many were skipped (default: 0, which logs every time). Producers posting events that are usually
+     * not subscribed to will not flood the log this way.
+     */
+    public EventBusBuilder noSubscriberMessageInterval(long interval, TimeUnit unit) {
+        this.noSubscriberMessageIntervalNanos = unit.toNanos(interval);
+        return this;
+    }
+
+    /**
+     * Posts a {@link NoSubscriberEvent} only for the first event of a class without subscribers within the given
+     * interval (default: 0, which posts it every time).
+     */
+    public EventBusBuilder noSubscriberEventInterval(long interval, TimeUnit unit) {
+        this.noSubscriberEventIntervalNanos = unit.toNanos(interval);
+        return this;
+    }
+
     /**
      * Fails if an subscriber throws an exception (default: false).
      * <p/>
@@ -100,9 +147,212 @@ public class EventBusBuilder {
     /**
      * Provide a custom thread pool to EventBus used for async and background event delivery. This is an advanced
      * setting to that can break things: ensure the given ExecutorService won't get stuck to avoid undefined behavior.
+     * Same as setting both {@link #backgroundExecutorService(ExecutorService)} and
+     * {@link #asyncExecutorService(ExecutorService)}.
+     * <p>
+     * Unless set, both use bounded pools; see {@link #asyncExecutorService(ExecutorService)} about waiting subscribers.
      */
     public EventBusBuilder executorService(ExecutorService executorService) {
-        this.executorService = executorService;
+        this.backgroundExecutorService = executorService;
+        this.asyncExecutorService = executorService;
+        return this;
+    }
+
+    /**
+     * Provide a custom thread pool used for {@link ThreadMode#BACKGROUND} event delivery. Each background lane keeps
+     * a thread while it has events (and a bit longer), so the pool should provide at least one thread per lane, see
+     * {@link #backgroundLanes(int)}. By default, each EventBus has its own pool with one thread per lane; thus a flood
+     * of async events cannot delay background events, and vice versa.
+     */
+    public EventBusBuilder backgroundExecutorService(ExecutorService backgroundExecutorService) {
+        this.backgroundExecutorService = backgroundExecutorService;
+        return this;
+    }
+
+    /**
+     * Provide a custom thread pool used for {@link ThreadMode#ASYNC} and {@link ThreadMode#ASYNC_ORDERED} event
+     * delivery. By default, EventBus instances share a pool with two threads per available processor (at least four);
+     * further events wait in its queue. Use a larger pool if async subscribers block for long, e.g. doing I/O.
+     * <p>
+     * Note: earlier versions used an unbounded cached thread pool. With the bounded default, async subscribers waiting
+     * for each other may starve or deadlock once all threads are busy; use
+     * {@link java.util.concurrent.Executors#newCachedThreadPool()} for the previous behavior.
+     */
+    public EventBusBuilder asyncExecutorService(ExecutorService asyncExecutorService) {
+        this.asyncExecutorService = asyncExecutorService;
+        return this;
+    }
+
+    /**
+     * Delivers {@link ThreadMode#ASYNC}, {@link ThreadMode#ASYNC_ORDERED} and {@link ThreadMode#BACKGROUND} events in
+     * virtual threads if the runtime supports them (Java 21+); otherwise, the executor services are left unchanged.
+     * Virtual threads are cheap to create and block, so this suits subscribers doing blocking I/O: bursts of events
+     * no longer result in thousands of platform threads. Replaces the executor services set before.
+     */
+    public EventBusBuilder useVirtualThreads() {
+        ExecutorService virtualThreadExecutor = VirtualThreads.getExecutorService();
+        if (virtualThreadExecutor != null) {
+            executorService(virtualThreadExecutor);
+        }
+        return this;
+    }
+
+    /**
+     * Sets how background threads delivering {@link ThreadMode#BACKGROUND} events wait for further events once
+     * they delivered all (default: {@link WaitStrategy#BLOCK}).
+     */
+    public EventBusBuilder waitStrategy(WaitStrategy waitStrategy) {
+        this.waitStrategy = waitStrategy;
+        return this;
+    }
+
+    /**
+     * Sets the number of lanes delivering {@link ThreadMode#BACKGROUND} events (default: 1). Each lane delivers its
+     * events sequentially in a background thread, but lanes run in parallel. Events are assigned to lanes by
+     * subscriber, thus each subscriber still receives its events in order, while a slow subscriber only holds up
+     * the subscribers sharing its lane.
+     */
+    public EventBusBuilder backgroundLanes(int backgroundLanes) {
+        if (backgroundLanes < 1) {
+            throw new IllegalArgumentException("At least one background lane is required");
+        }
+        this.backgroundLanes = backgroundLanes;
+        return this;
+    }
+
+    /**
+     * Assigns {@link ThreadMode#BACKGROUND} events to lanes by subscriber and event type (default: false, by
+     * subscriber only). This spreads the load better, but events of different types may reach a subscriber in another
+     * order than they were posted. See {@link #backgroundLanes(int)}.
+     */
+    public EventBusBuilder backgroundLanesByEventType(boolean backgroundLanesByEventType) {
+        this.backgroundLanesByEventType = backgroundLanesByEventType;
+        return this;
+    }
+
+    /**
+     * Calls {@link ThreadMode#POSTING} subscribers in parallel using the common {@link ForkJoinPool} if an event has
+     * at least the given number of subscriptions, see {@link #parallelFanOut(int, ForkJoinPool)}.
+     */
+    public EventBusBuilder parallelFanOut(int minSubscriptions) {
+        return parallelFanOut(minSubscriptions, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Calls {@link ThreadMode#POSTING} subscribers in parallel using the given pool if an event has at least the
+     * given number of subscriptions (default: off). Posting still returns after all of them were called.
+     * <p/>
+     * Subscribers with the same priority are called in parallel; subscribers with a lower priority only after all
+     * with a higher priority returned. Canceling the event delivery does not stop subscribers with the same priority,
+     * only those with lower priorities. Subscribers called this way must be thread-safe.
+     * <p/>
+     * Requires Java 8 or Android API level 24 (ForkJoinPool). Only pays off for many subscribers or slow ones, as
+     * splitting the work across threads has its overhead.
+     */
+    public EventBusBuilder parallelFanOut(int minSubscriptions, ForkJoinPool pool) {
+        if (minSubscriptions < 2) {
+            throw new IllegalArgumentException("Parallel fan-out requires at least two subscriptions");
+        }
+        this.fanOutMinSubscriptions = minSubscriptions;
+        this.fanOutPool = pool;
+        return this;
+    }
+
+    /**
+     * Borrows the state needed while posting from a small pool instead of keeping one per posting thread (default:
+     * false). Use this if many short-lived threads post, e.g. with thread-per-request servers or virtual threads: the
+     * state of each thread would be allocated for just a few posts, and kept as long as the thread lives. Adds a bit
+     * of overhead to each outermost post call.
+     */
+    public EventBusBuilder pooledPostingState(boolean pooledPostingState) {
+        this.pooledPostingState = pooledPostingState;
+        return this;
+    }
+
+    /** Sets how objects used to queue events are recycled (default: {@link PendingPostPooling#STRIPED}). */
+    public EventBusBuilder pendingPostPooling(PendingPostPooling pendingPostPooling) {
+        this.pendingPostPooling = pendingPostPooling;
+        return this;
+    }
+
+    /**
+     * Limits the number of events queued for delivery in another thread (default: unlimited). Once the given capacity
+     * is reached, the policy decides what happens to further events. By default, each poster has its own capacity:
+     * the main thread poster ({@link ThreadMode#MAIN} and {@link ThreadMode#MAIN_ORDERED}), all background lanes,
+     * {@link ThreadMode#ASYNC} and all {@link ThreadMode#ASYNC_ORDERED} mailboxes (for
+     * {@link OverflowPolicy#DROP_OLDEST}, each queue has its own capacity); see also
+     * {@link #queueCapacityPerSubscriber(boolean)}. Use this to bound the memory held by events if subscribers may
+     * fall behind posting threads. Dropped events are counted by {@link EventBus#getOverflowCount()}, and a warning
+     * is logged once the queue is full. Events collected for a batch (see {@link Subscribe#maxBatchSize()}) count
+     * until they are delivered.
+     */
+    public EventBusBuilder queueCapacity(int capacity, OverflowPolicy overflowPolicy) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("Queue capacity must be at least 1");
+        }
+        this.queueCapacity = capacity;
+        this.overflowPolicy = overflowPolicy;
+        return this;
+    }
+
+    /**
+     * Applies the queue capacity to each subscriber instead of each poster (default: false), so a slow subscriber
+     * does not cause events of other subscribers to be dropped. See {@link #queueCapacity(int, OverflowPolicy)}.
+     */
+    public EventBusBuilder queueCapacityPerSubscriber(boolean queueCapacityPerSubscriber) {
+        this.queueCapacityPerSubscriber = queueCapacityPerSubscriber;
+        return this;
+    }
+
+    /** Takes events that did not fit into a full queue; required for {@link OverflowPolicy#CALLBACK}. */
+    public EventBusBuilder overflowHandler(OverflowHandler overflowHandler) {
+        this.overflowHandler = overflowHandler;
+        return this;
+    }
+
+    /**
+     * Sticky events of the given type (sub classes and implementations of interfaces included) expire after the given
+     * time: they are no longer delivered to new subscribers or returned by getters, and are eventually removed from
+     * memory. If several types with a time to live apply to an event class, the one of the most specific type is used.
+     * Expired sticky events are counted by {@link EventBus#getExpiredStickyEventCount()}.
+     */
+    public EventBusBuilder stickyEventTimeToLive(Class<?> eventType, long timeToLive, TimeUnit unit) {
+        if (timeToLive <= 0) {
+            throw new IllegalArgumentException("Time to live must be positive");
+        }
+        if (stickyTimeToLiveNanos == null) {
+            stickyTimeToLiveNanos = new HashMap<>();
+        }
+        stickyTimeToLiveNanos.put(eventType, unit.toNanos(timeToLive));
+        return this;
+    }
+
+    /**
+     * Limits the number of sticky events, keyed ones included (default: unlimited). If there are more, the least
+     * recently used ones are evicted (approximately: sticky events posted or read since the last eviction pass get a
+     * second chance). Evicted sticky events are counted by {@link EventBus#getEvictedStickyEventCount()}.
+     */
+    public EventBusBuilder maxStickyEvents(int maxCount) {
+        if (maxCount < 1) {
+            throw new IllegalArgumentException("Max sticky events must be at least 1");
+        }
+        this.maxStickyEvents = maxCount;
+        return this;
+    }
+
+    /**
+     * Limits the approximate memory held by sticky events as estimated by the given sizer (default: unlimited). Like
+     * {@link #maxStickyEvents(int)}, the least recently used sticky events are evicted to stay within the limit.
+     */
+    public EventBusBuilder maxStickyEventBytes(long maxBytes, StickyEventSizer sizer) {
+        if (maxBytes < 1) {
+            throw new IllegalArgumentException("Max sticky event bytes must be at least 1");
+        }
+        if (sizer == null) {
+            throw new NullPointerException("Sizer may not be null");
+        }
+        this.maxStickyEventBytes = maxBytes;
+        this.stickyEventSizer = sizer;
         return this;
     }
 
@@ -158,6 +408,14 @@ public class EventBusBuilder {
         }
     }
 
+    ExecutorService getBackgroundExecutorService() {
+        if (backgroundExecutorService != null) {
+            return backgroundExecutorService;
+        } else {
+            return newBoundedExecutorService("EventBus-background", backgroundLanes);
+        }
+    }
+
     MainThreadSupport getMainThreadSupport() {
         if (mainThreadSupport != null) {
             return mainThreadSupport;
@@ -190,4 +448,26 @@ public class EventBusBuilder {
         return new EventBus(this);
     }
 
+    /** Threads are only started when needed and end after being idle for a minute. */
+    private static ExecutorService newBoundedExecutorService(String name, int threads) {
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<Runnable>(), new NamedThreadFactory(name));
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
+
+    private static final class NamedThreadFactory implements ThreadFactory {
+        private final String name;
+        private final AtomicInteger threadNumber = new AtomicInteger();
+
+        NamedThreadFactory(String name) {
+            this.name = name;
+        }
+
+        @Override
+        public Thread newThread(Runnable runnable) {
+            return new Thread(runnable, name + "-" + threadNumber.incrementAndGet());
+        }
+    }
+
 }
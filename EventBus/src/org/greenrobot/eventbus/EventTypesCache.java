@@ -0,0 +1,99 @@
+/*
+ * Copyright (C) 2012-2020 Markus Junginger, greenrobot (http://greenrobot.org)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.greenrobot.eventbus;
+
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Caches all event types of an event class: the class itself, its super classes and all interfaces. Lookups do not
+ * lock. If available, {@link ClassValue} is used, which releases entries together with their class (e.g. once the
+ * class loader of a redeployed plugin is unloaded). Otherwise (e.g. older Android versions) a concurrent map is used.
+ * <p>
+ * The returned arrays are shared and must not be modified.
+ */
+abstract class EventTypesCache {
+
+    private static final boolean CLASS_VALUE_AVAILABLE = isClassValueAvailable();
+
+    private static boolean isClassValueAvailable() {
+        try {
+            Class.forName("java.lang.ClassValue");
+            return true;
+        } catch (ClassNotFoundException e) {
+            return false;
+        }
+    }
+
+    static EventTypesCache create() {
+        return CLASS_VALUE_AVAILABLE ? new ClassValueCache() : new MapCache();
+    }
+
+    abstract Class<?>[] get(Class<?> eventClass);
+
+    /** Super classes come in order, each followed by its interfaces and their super interfaces. */
+    static Class<?>[] computeEventTypes(Class<?> eventClass) {
+        Set<Class<?>> eventTypes = new LinkedHashSet<>();
+        Class<?> clazz = eventClass;
+        while (clazz != null) {
+            eventTypes.add(clazz);
+            addInterfaces(eventTypes, clazz.getInterfaces());
+            clazz = clazz.getSuperclass();
+        }
+        return eventTypes.toArray(new Class<?>[eventTypes.size()]);
+    }
+
+    /** Recurses through super interfaces. */
+    private static void addInterfaces(Set<Class<?>> eventTypes, Class<?>[] interfaces) {
+        for (Class<?> interfaceClass : interfaces) {
+            if (eventTypes.add(interfaceClass)) {
+                addInterfaces(eventTypes, interfaceClass.getInterfaces());
+            }
+        }
+    }
+
+    /** Only loaded if ClassValue is available. */
+    private static final class ClassValueCache extends EventTypesCache {
+        private final ClassValue<Class<?>[]> eventTypes = new ClassValue<Class<?>[]>() {
+            @Override
+            protected Class<?>[] computeValue(Class<?> type) {
+                return computeEventTypes(type);
+            }
+        };
+
+        @Override
+        Class<?>[] get(Class<?> eventClass) {
+            return eventTypes.get(eventClass);
+        }
+    }
+
+    private static final class MapCache extends EventTypesCache {
+        private final Map<Class<?>, Class<?>[]> eventTypesByClass = new ConcurrentHashMap<>();
+
+        @Override
+        Class<?>[] get(Class<?> eventClass) {
+            Class<?>[] eventTypes = eventTypesByClass.get(eventClass);
+            if (eventTypes == null) {
+                // Racing threads may compute the same value, which is fine
+                eventTypes = computeEventTypes(eventClass);
+                eventTypesByClass.put(eventClass, eventTypes);
+            }
+            return eventTypes;
+        }
+    }
+}
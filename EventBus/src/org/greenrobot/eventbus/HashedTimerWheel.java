@@ -0,0 +1,234 @@
+/*
+ * Copyright (C) 2012-2020 Markus Junginger, greenrobot (http://greenrobot.org)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.greenrobot.eventbus;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.LockSupport;
+import java.util.logging.Level;
+
+/**
+ * Posts events at their deadline for {@link EventBus#postDelayed(Object, long, TimeUnit)}, and runs the timers of the
+ * bus (e.g. for debouncing and batches, see {@link #schedule(Runnable, long)}). A hashed timing wheel is an
+ * array of buckets, each a linked list of {@link ScheduledPost}s; a timer thread advances one bucket per tick and posts
+ * the events that are due. Scheduling and canceling are O(1) and independent of the number of scheduled events; the
+ * price is that events are posted up to one tick late.
+ * <p>
+ * Scheduling threads only add to a lock-free queue (like {@link PendingPostQueue}), which the timer thread moves into
+ * the buckets on each tick. Posts due later than one rotation of the wheel stay in their bucket for the remaining
+ * rounds. Canceled posts are unlinked when the timer thread passes their bucket.
+ * <p>
+ * The timer thread is started when an event is scheduled, and stops after being idle for a while.
+ */
+final class HashedTimerWheel implements Runnable {
+    static final long DEFAULT_TICK_NANOS = TimeUnit.MILLISECONDS.toNanos(10);
+    static final int DEFAULT_WHEEL_SIZE = 512;
+
+    private static final long IDLE_NANOS = TimeUnit.SECONDS.toNanos(1);
+    /** About 73 years; keeps deadline arithmetic clear of overflows. */
+    private static final long MAX_DELAY_NANOS = Long.MAX_VALUE >> 2;
+
+    private final EventBus eventBus;
+    private final long tickNanos;
+    private final int mask;
+    private final AtomicBoolean running = new AtomicBoolean();
+
+    /** Newly scheduled posts, linked via {@link ScheduledPost#nextNew}. */
+    private final AtomicReference<ScheduledPost> newTail;
+    /** The last polled post (initially a stub); only accessed by the timer thread. */
+    private ScheduledPost newHead;
+
+    // Only accessed by the timer thread
+    private final ScheduledPost[] bucketHeads;
+    private final ScheduledPost[] bucketTails;
+    private long startNanos;
+    private long tick;
+    private int size;
+
+    HashedTimerWheel(EventBus eventBus) {
+        this(eventBus, DEFAULT_TICK_NANOS, DEFAULT_WHEEL_SIZE);
+    }
+
+    HashedTimerWheel(EventBus eventBus, long tickNanos, int wheelSize) {
+        if (tickNanos <= 0) {
+            throw new IllegalArgumentException("Tick duration must be positive");
+        }
+        if (wheelSize <= 0 || (wheelSize & (wheelSize - 1)) != 0) {
+            throw new IllegalArgumentException("Wheel size must be a power of two: " + wheelSize);
+        }
+        this.eventBus = eventBus;
+        this.tickNanos = tickNanos;
+        mask = wheelSize - 1;
+        bucketHeads = new ScheduledPost[wheelSize];
+        bucketTails = new ScheduledPost[wheelSize];
+        newHead = new ScheduledPost(null, 0);
+        newTail = new AtomicReference<>(newHead);
+    }
+
+    ScheduledPost schedule(Object event, long delayNanos) {
+        return schedule(event, false, delayNanos);
+    }
+
+    /** The task runs in the timer thread, so it must return quickly, e.g. by just handing events to a poster. */
+    ScheduledPost schedule(Runnable task, long delayNanos) {
+        return schedule(task, true, delayNanos);
+    }
+
+    private ScheduledPost schedule(Object eventOrTask, boolean isTask, long delayNanos) {
+        long delay = Math.min(Math.max(0, delayNanos), MAX_DELAY_NANOS);
+        ScheduledPost post = new ScheduledPost(eventOrTask, isTask, System.nanoTime() + delay);
+        ScheduledPost previous = newTail.getAndSet(post);
+        previous.nextNew = post;
+        startThreadIfNotRunning();
+        return post;
+    }
+
+    private void startThreadIfNotRunning() {
+        if (!running.get() && running.compareAndSet(false, true)) {
+            Thread thread = new Thread(this, "EventBus-timer");
+            thread.setDaemon(true);
+            thread.start();
+        }
+    }
+
+    @Override
+    public void run() {
+        long idleSince = System.nanoTime();
+        // Continues the ticks of a previous timer thread, so posts left in the buckets stay in place
+        startNanos = idleSince - tick * tickNanos;
+        boolean stopped = false;
+        try {
+            while (true) {
+                long now = waitUntil(startNanos + (tick + 1) * tickNanos);
+                transferNewPosts();
+                if (size == 0) {
+                    if (now - idleSince >= IDLE_NANOS) {
+                        running.set(false);
+                        // Keep running if a post was scheduled while stopping and its thread did not start a new one
+                        if (newTail.get() == newHead || !running.compareAndSet(false, true)) {
+                            stopped = true;
+                            return;
+                        }
+                    }
+                } else {
+                    idleSince = now;
+                }
+                expireBucket((int) (tick & mask));
+                tick++;
+            }
+        } finally {
+            if (!stopped) {
+                // Died unexpectedly: otherwise, scheduled and future posts would never be posted
+                running.set(false);
+                if (size > 0 || newTail.get() != newHead) {
+                    startThreadIfNotRunning();
+                }
+            }
+        }
+    }
+
+    private long waitUntil(long deadlineNanos) {
+        while (true) {
+            long now = System.nanoTime();
+            long remaining = deadlineNanos - now;
+            if (remaining <= 0) {
+                return now;
+            }
+            LockSupport.parkNanos(this, remaining);
+        }
+    }
+
+    private void transferNewPosts() {
+        while (true) {
+            ScheduledPost post = newHead.nextNew;
+            if (post == null) {
+                // Also if a scheduling thread did not link its post yet; it is picked up on the next tick
+                return;
+            }
+            newHead.nextNew = null;
+            newHead = post;
+            if (post.isCanceled()) {
+                continue;
+            }
+            // The bucket of tick t is processed at the end of t, so posts are never early
+            long dueTick = Math.max((post.deadlineNanos - startNanos) / tickNanos, tick);
+            post.remainingRounds = (dueTick - tick) / bucketHeads.length;
+            int index = (int) (dueTick & mask);
+            ScheduledPost last = bucketTails[index];
+            if (last == null) {
+                bucketHeads[index] = post;
+            } else {
+                last.next = post;
+            }
+            bucketTails[index] = post;
+            size++;
+        }
+    }
+
+    private void expireBucket(int index) {
+        ScheduledPost previous = null;
+        ScheduledPost post = bucketHeads[index];
+        while (post != null) {
+            ScheduledPost next = post.next;
+            boolean due = post.remainingRounds <= 0;
+            if (due || post.isCanceled()) {
+                if (previous == null) {
+                    bucketHeads[index] = next;
+                } else {
+                    previous.next = next;
+                }
+                if (next == null) {
+                    bucketTails[index] = previous;
+                }
+                post.next = null;
+                size--;
+                if (due) {
+                    Object event = post.expire();
+                    if (event != null) {
+                        if (post.isTask) {
+                            run((Runnable) event);
+                        } else {
+                            post(event);
+                        }
+                    }
+                }
+            } else {
+                post.remainingRounds--;
+                previous = post;
+            }
+            post = next;
+        }
+    }
+
+    private void run(Runnable task) {
+        try {
+            task.run();
+        } catch (Throwable th) {
+            // Like subscriber exceptions, also errors must not stop the timer thread
+            eventBus.getLogger().log(Level.SEVERE, "Timer task failed: " + task.getClass(), th);
+        }
+    }
+
+    private void post(Object event) {
+        try {
+            eventBus.post(event);
+        } catch (Throwable th) {
+            // E.g. with throwSubscriberException; other events must still be posted
+            eventBus.getLogger().log(Level.SEVERE, "Could not post scheduled event " + event.getClass(), th);
+        }
+    }
+}
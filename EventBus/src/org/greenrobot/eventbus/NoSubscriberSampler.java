@@ -0,0 +1,76 @@
+/*
+ * Copyright (C) 2012-2020 Markus Junginger, greenrobot (http://greenrobot.org)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.greenrobot.eventbus;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Decides if an event without subscribers is reported (logged or posted as {@link NoSubscriberEvent}): only the first
+ * miss per event class within an interval is. Once the window for a class exists, sampling does not allocate.
+ * <p>
+ * To not hold on to arbitrarily many event classes, all windows are removed once {@link #MAX_WINDOWS} is reached. At
+ * worst, this reports a miss within the interval and loses the number of suppressed misses.
+ */
+final class NoSubscriberSampler {
+
+    static final int SUPPRESSED = -1;
+    static final int MAX_WINDOWS = 1024;
+
+    private final long intervalNanos;
+    private final ConcurrentHashMap<Class<?>, Window> windows = new ConcurrentHashMap<>();
+
+    NoSubscriberSampler(long intervalNanos) {
+        this.intervalNanos = intervalNanos;
+    }
+
+    /**
+     * @return {@link #SUPPRESSED} if the miss should not be reported, otherwise the number of misses suppressed since
+     * the last report.
+     */
+    long sample(Class<?> eventClass) {
+        Window window = windows.get(eventClass);
+        if (window == null) {
+            if (windows.size() >= MAX_WINDOWS) {
+                windows.clear();
+            }
+            Window newWindow = new Window();
+            window = windows.putIfAbsent(eventClass, newWindow);
+            if (window == null) {
+                window = newWindow;
+            }
+        }
+
+        long now = System.nanoTime();
+        long windowStart = window.start.get();
+        if (windowStart != 0 && now - windowStart < intervalNanos) {
+            window.suppressed.incrementAndGet();
+            return SUPPRESSED;
+        }
+        // Only one of racing threads opens the next window; 0 is reserved for "no window yet"
+        if (window.start.compareAndSet(windowStart, now != 0 ? now : 1)) {
+            return window.suppressed.getAndSet(0);
+        } else {
+            window.suppressed.incrementAndGet();
+            return SUPPRESSED;
+        }
+    }
+
+    private static final class Window {
+        final AtomicLong start = new AtomicLong();
+        final AtomicLong suppressed = new AtomicLong();
+    }
+}
@@ -0,0 +1,66 @@
+/*
+ * Copyright (C) 2012-2020 Markus Junginger, greenrobot (http://greenrobot.org)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.greenrobot.eventbus;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+
+/**
+ * Posts events for {@link ThreadMode#ASYNC_ORDERED}: each subscriber has a mailbox delivering its events one after
+ * another using the async executor service. A mailbox only occupies a thread while it has events; thus many subscribers
+ * share a few threads, but each is called by one thread at a time.
+ */
+final class OrderedAsyncPoster implements DropOldestPoster {
+
+    private final EventBus eventBus;
+    /** Guarded by the EventBus (register and unregister). */
+    private final Map<Object, PosterLane> mailboxesBySubscriber = new HashMap<>();
+
+    OrderedAsyncPoster(EventBus eventBus) {
+        this.eventBus = eventBus;
+    }
+
+    /** Must be called synchronized on the EventBus. */
+    PosterLane getMailbox(Object subscriber) {
+        PosterLane mailbox = mailboxesBySubscriber.get(subscriber);
+        if (mailbox == null) {
+            // No linger: the thread is given back as soon as the mailbox is empty
+            ExecutorService executor = eventBus.getExecutorService(ThreadMode.ASYNC_ORDERED);
+            mailbox = new PosterLane(eventBus, executor, WaitStrategy.BLOCK, 0);
+            mailboxesBySubscriber.put(subscriber, mailbox);
+        }
+        return mailbox;
+    }
+
+    /**
+     * Must be called synchronized on the EventBus. Events still in the mailbox are not delivered as their
+     * subscriptions are inactive.
+     */
+    void removeMailbox(Object subscriber) {
+        mailboxesBySubscriber.remove(subscriber);
+    }
+
+    public void enqueue(Subscription subscription, Object event) {
+        enqueue(subscription, event, false);
+    }
+
+    public void enqueue(Subscription subscription, Object event, boolean dropsOldest) {
+        PendingPost pendingPost = eventBus.obtainPendingPost(subscription, event, dropsOldest);
+        subscription.mailbox.enqueue(pendingPost);
+    }
+
+}
@@ -0,0 +1,33 @@
+/*
+ * Copyright (C) 2012-2020 Markus Junginger, greenrobot (http://greenrobot.org)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.greenrobot.eventbus;
+
+/**
+ * Takes events that did not fit into a full queue with {@link OverflowPolicy#CALLBACK}, e.g. to persist them for
+ * later or to reply with an error.
+ *
+ * @see EventBusBuilder#overflowHandler(OverflowHandler)
+ */
+public interface OverflowHandler {
+
+    /**
+     * Called in the posting thread instead of queuing the event for the subscriber.
+     *
+     * @param event      Event that was not queued.
+     * @param subscriber Subscriber the event was not queued for.
+     */
+    void onOverflow(Object event, Object subscriber);
+}
@@ -0,0 +1,46 @@
+/*
+ * Copyright (C) 2012-2020 Markus Junginger, greenrobot (http://greenrobot.org)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.greenrobot.eventbus;
+
+/**
+ * Determines what happens to an event that would be queued for delivery in another thread while the queue is full.
+ *
+ * @see EventBusBuilder#queueCapacity(int, OverflowPolicy)
+ * @see EventBus#getOverflowCount()
+ */
+public enum OverflowPolicy {
+    /**
+     * The posting thread waits until there is space in the queue. Threads delivering queued events (including the
+     * main thread) are not blocked, as they may be the ones to make space; they exceed the capacity instead.
+     */
+    BLOCK,
+
+    /** The event is not delivered to the subscriber. */
+    DROP_NEWEST,
+
+    /**
+     * The oldest event in the queue the new event goes to is not delivered; it is dropped once it is taken from the
+     * queue (events collected for a batch are dropped right away). Thus, the capacity applies to each queue: each
+     * background lane, {@link ThreadMode#ASYNC_ORDERED} mailbox and batch has its own. With a capacity per subscriber,
+     * it applies to the events of a subscriber in each queue. Until dropped, events are still held, so up to twice the
+     * capacity may be held while subscribers are busy. If that is reached, the newest event is dropped instead. The newest event is also dropped for a custom main thread poster (see
+     * {@link MainThreadSupport#createPoster(EventBus)}), which cannot drop queued events.
+     */
+    DROP_OLDEST,
+
+    /** The event is handed to the {@link OverflowHandler} in the posting thread instead. */
+    CALLBACK
+}
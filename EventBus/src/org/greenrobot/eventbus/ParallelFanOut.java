@@ -0,0 +1,137 @@
+/*
+ * Copyright (C) 2012-2020 Markus Junginger, greenrobot (http://greenrobot.org)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.greenrobot.eventbus;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Delivers an event to many subscriptions in parallel using a {@link ForkJoinPool}, see
+ * {@link EventBusBuilder#parallelFanOut(int, ForkJoinPool)}. Subscriptions are processed in bands of equal priority:
+ * the {@link ThreadMode#POSTING} subscribers of a band are called in parallel, and the next band starts only after
+ * all of them returned. If a subscriber cancels the event delivery, the current band still completes, but no further
+ * bands are processed.
+ * <p>
+ * Only referenced if enabled, so ForkJoinPool is not required otherwise (e.g. on older Android versions).
+ */
+final class ParallelFanOut {
+
+    private final EventBus eventBus;
+    private final ForkJoinPool pool;
+    final int minSubscriptions;
+
+    ParallelFanOut(EventBus eventBus, ForkJoinPool pool, int minSubscriptions) {
+        this.eventBus = eventBus;
+        this.pool = pool;
+        this.minSubscriptions = minSubscriptions;
+    }
+
+    /** Subscriptions must be sorted by priority, highest first. Returns after all subscribers were called. */
+    void post(Object event, Subscription[] subscriptions, boolean isMainThread) {
+        int start = 0;
+        while (start < subscriptions.length) {
+            int priority = subscriptions[start].subscriberMethod.priority;
+            int end = start + 1;
+            while (end < subscriptions.length && subscriptions[end].subscriberMethod.priority == priority) {
+                end++;
+            }
+            if (postBand(event, subscriptions, start, end, isMainThread)) {
+                break;
+            }
+            start = end;
+        }
+    }
+
+    /** @return true if the event delivery was canceled */
+    private boolean postBand(Object event, Subscription[] subscriptions, int start, int end, boolean isMainThread) {
+        int postingCount = 0;
+        for (int i = start; i < end; i++) {
+            Subscription subscription = subscriptions[i];
+            if (isCalledInParallel(subscription)) {
+                postingCount++;
+            } else {
+                // Just enqueues the event (or calls a subscriber that may not be called concurrently)
+                eventBus.postToSubscription(subscription, event, isMainThread);
+            }
+        }
+        if (postingCount == 0) {
+            return false;
+        }
+        Band band = new Band(eventBus, event, subscriptions);
+        if (postingCount == 1) {
+            // Not worth a thread switch
+            new FanOutAction(band, start, end, end - start).compute();
+        } else {
+            int chunkSize = Math.max(1, (end - start) / (4 * pool.getParallelism()));
+            pool.invoke(new FanOutAction(band, start, end, chunkSize));
+        }
+        return band.canceled;
+    }
+
+    /** Rate limited subscriptions are passed to the EventBus, which may deliver the event later. */
+    private static boolean isCalledInParallel(Subscription subscription) {
+        return subscription.subscriberMethod.threadMode == ThreadMode.POSTING &&
+                subscription.rateLimitedDelivery == null;
+    }
+
+    /** State shared by all actions of a band. */
+    private static final class Band {
+        final EventBus eventBus;
+        final Object event;
+        final Subscription[] subscriptions;
+        volatile boolean canceled;
+
+        Band(EventBus eventBus, Object event, Subscription[] subscriptions) {
+            this.eventBus = eventBus;
+            this.event = event;
+            this.subscriptions = subscriptions;
+        }
+    }
+
+    /** Never serialized; serializable only as a ForkJoinTask. */
+    private static final class FanOutAction extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final transient Band band;
+        private final int from;
+        private final int to;
+        private final int chunkSize;
+
+        FanOutAction(Band band, int from, int to, int chunkSize) {
+            this.band = band;
+            this.from = from;
+            this.to = to;
+            this.chunkSize = chunkSize;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from > chunkSize) {
+                int middle = (from + to) >>> 1;
+                invokeAll(new FanOutAction(band, from, middle, chunkSize),
+                        new FanOutAction(band, middle, to, chunkSize));
+            } else {
+                for (int i = from; i < to; i++) {
+                    Subscription subscription = band.subscriptions[i];
+                    if (isCalledInParallel(subscription) &&
+                            band.eventBus.invokeSubscriberInFanOut(subscription, band.event)) {
+                        band.canceled = true;
+                    }
+                }
+            }
+        }
+    }
+}
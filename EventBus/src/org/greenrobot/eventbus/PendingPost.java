@@ -15,45 +15,30 @@
  */
 package org.greenrobot.eventbus;
 
-import java.util.ArrayList;
-import java.util.List;
-
+/** An event queued for delivery to a subscription; recycled by {@link PendingPostPool}. */
 final class PendingPost {
-    private final static List<PendingPost> pendingPostPool = new ArrayList<PendingPost>();
-
     Object event;
     Subscription subscription;
-    PendingPost next;
+    /** Written by producers of {@link PendingPostQueue}, read by its consumer. */
+    volatile PendingPost next;
+    /** Used by {@link PendingPostPool.StripedPool} to return it to the stripe it was taken from. */
+    int poolStripe;
+    /**
+     * For {@link OverflowPolicy#DROP_OLDEST}, set before enqueuing: the queue drops its oldest pending post of the same
+     * {@link QueueLimit} to make room for this one.
+     */
+    boolean dropsOldest;
+    /** Set by {@link PendingPostQueue#poll()}: the event must not be delivered, see {@link #dropsOldest}. */
+    boolean dropped;
 
-    private PendingPost(Object event, Subscription subscription) {
+    PendingPost(Object event, Subscription subscription) {
         this.event = event;
         this.subscription = subscription;
     }
 
-    static PendingPost obtainPendingPost(Subscription subscription, Object event) {
-        synchronized (pendingPostPool) {
-            int size = pendingPostPool.size();
-            if (size > 0) {
-                PendingPost pendingPost = pendingPostPool.remove(size - 1);
-                pendingPost.event = event;
-                pendingPost.subscription = subscription;
-                pendingPost.next = null;
-                return pendingPost;
-            }
-        }
-        return new PendingPost(event, subscription);
-    }
-
-    static void releasePendingPost(PendingPost pendingPost) {
-        pendingPost.event = null;
-        pendingPost.subscription = null;
-        pendingPost.next = null;
-        synchronized (pendingPostPool) {
-            // Don't let the pool grow indefinitely
-            if (pendingPostPool.size() < 10000) {
-                pendingPostPool.add(pendingPost);
-            }
-        }
+    /** Creates a pending post without payload, e.g. as the head of a queue. */
+    static PendingPost createEmpty() {
+        return new PendingPost(null, null);
     }
 
-}
\ No newline at end of file
+}
@@ -0,0 +1,165 @@
+/*
+ * Copyright (C) 2012-2020 Markus Junginger, greenrobot (http://greenrobot.org)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.greenrobot.eventbus;
+
+/**
+ * Recycles {@link PendingPost}s of an EventBus, see {@link PendingPostPooling} for the available implementations.
+ * Counts hits (a pooled object was reused) and misses (a new one was allocated).
+ */
+abstract class PendingPostPool {
+    /** Like the former global pool, don't let pools grow indefinitely. */
+    static final int MAX_POOLED = 10000;
+
+    final StripedCounter hits = new StripedCounter();
+    final StripedCounter misses = new StripedCounter();
+
+    static PendingPostPool create(PendingPostPooling pooling) {
+        switch (pooling) {
+            case NONE:
+                return new NoPool();
+            case THREAD_LOCAL:
+                return new ThreadLocalPool();
+            case STRIPED:
+                return new StripedPool();
+            default:
+                throw new IllegalArgumentException("Unknown pooling: " + pooling);
+        }
+    }
+
+    abstract PendingPost obtain(Subscription subscription, Object event);
+
+    /** Must not be called while the pending post is still referenced, e.g. by a queue. */
+    abstract void release(PendingPost pendingPost);
+
+    PendingPost allocate(Subscription subscription, Object event) {
+        misses.increment();
+        return new PendingPost(event, subscription);
+    }
+
+    PendingPost reuse(PendingPost pendingPost, Subscription subscription, Object event) {
+        hits.increment();
+        pendingPost.event = event;
+        pendingPost.subscription = subscription;
+        pendingPost.next = null;
+        return pendingPost;
+    }
+
+    static void clear(PendingPost pendingPost) {
+        pendingPost.event = null;
+        pendingPost.subscription = null;
+        pendingPost.next = null;
+    }
+
+    static final class NoPool extends PendingPostPool {
+        @Override
+        PendingPost obtain(Subscription subscription, Object event) {
+            return allocate(subscription, event);
+        }
+
+        @Override
+        void release(PendingPost pendingPost) {
+            clear(pendingPost);
+        }
+    }
+
+    static final class ThreadLocalPool extends PendingPostPool {
+        /** Per thread; a few threads hoarding objects would not pay off. */
+        private static final int MAX_POOLED_PER_THREAD = 256;
+
+        private final ThreadLocal<Stack> stacks = new ThreadLocal<Stack>() {
+            @Override
+            protected Stack initialValue() {
+                return new Stack(MAX_POOLED_PER_THREAD);
+            }
+        };
+
+        @Override
+        PendingPost obtain(Subscription subscription, Object event) {
+            PendingPost pendingPost = stacks.get().pop();
+            return pendingPost != null ? reuse(pendingPost, subscription, event) : allocate(subscription, event);
+        }
+
+        @Override
+        void release(PendingPost pendingPost) {
+            clear(pendingPost);
+            stacks.get().push(pendingPost);
+        }
+    }
+
+    static final class StripedPool extends PendingPostPool {
+        private final Stack[] stripes;
+
+        StripedPool() {
+            int stripeCount = StripedCounter.stripeCount();
+            stripes = new Stack[stripeCount];
+            for (int i = 0; i < stripeCount; i++) {
+                stripes[i] = new Stack(MAX_POOLED / stripeCount);
+            }
+        }
+
+        @Override
+        PendingPost obtain(Subscription subscription, Object event) {
+            int stripeIndex = StripedCounter.currentStripe(stripes.length);
+            Stack stripe = stripes[stripeIndex];
+            PendingPost pendingPost;
+            synchronized (stripe) {
+                pendingPost = stripe.pop();
+            }
+            if (pendingPost != null) {
+                reuse(pendingPost, subscription, event);
+            } else {
+                pendingPost = allocate(subscription, event);
+            }
+            pendingPost.poolStripe = stripeIndex;
+            return pendingPost;
+        }
+
+        @Override
+        void release(PendingPost pendingPost) {
+            clear(pendingPost);
+            // Return to the posting thread's stripe; the releasing thread is usually a different one
+            Stack stripe = stripes[pendingPost.poolStripe];
+            synchronized (stripe) {
+                stripe.push(pendingPost);
+            }
+        }
+    }
+
+    /** Bounded; not thread-safe. */
+    static final class Stack {
+        private final PendingPost[] pendingPosts;
+        private int size;
+
+        Stack(int capacity) {
+            pendingPosts = new PendingPost[capacity];
+        }
+
+        PendingPost pop() {
+            if (size == 0) {
+                return null;
+            }
+            PendingPost pendingPost = pendingPosts[--size];
+            pendingPosts[size] = null;
+            return pendingPost;
+        }
+
+        void push(PendingPost pendingPost) {
+            if (size < pendingPosts.length) {
+                pendingPosts[size++] = pendingPost;
+            }
+        }
+    }
+}
@@ -0,0 +1,44 @@
+/*
+ * Copyright (C) 2012-2020 Markus Junginger, greenrobot (http://greenrobot.org)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.greenrobot.eventbus;
+
+/**
+ * How an EventBus recycles the small objects used to queue events for delivery in another thread (all thread modes
+ * except {@link ThreadMode#POSTING}).
+ *
+ * @see EventBusBuilder#pendingPostPooling(PendingPostPooling)
+ * @see EventBus#getPendingPostPoolHits()
+ */
+public enum PendingPostPooling {
+    /**
+     * Always allocates. With modern garbage collectors, short-lived objects are cheap, so this may be the fastest
+     * option on server JVMs.
+     */
+    NONE,
+
+    /**
+     * Each thread has its own pool without any synchronization. Objects are returned to the pool of the delivering
+     * thread, thus this only pays off if that thread also posts, e.g. Android's main thread for
+     * {@link ThreadMode#MAIN_ORDERED} events posted from the main thread.
+     */
+    THREAD_LOCAL,
+
+    /**
+     * This is the default. Pools are striped by posting thread, each with its own lock. Objects are returned to the
+     * stripe they were taken from, so a posting thread usually shares its stripe with a delivering thread only.
+     */
+    STRIPED
+}
@@ -16,41 +16,166 @@
 
 package org.greenrobot.eventbus;
 
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Lock-free queue for many producers (posting threads) and a single consumer, linking pending posts via
+ * {@link PendingPost#next}. Producers only swap the tail and link the previous tail, so they never block each other
+ * or the consumer. A consumer waiting in {@link #poll(int)} is parked and only unparked if it is actually waiting.
+ * <p>
+ * The head is always a node without payload. When polling, the payload of the next node is moved to the head node,
+ * which is then returned; the next node becomes the new head. This way, returned pending posts are no longer
+ * referenced by the queue and can be released to the pool.
+ * <p>
+ * {@link #poll()} and {@link #poll(int)} must not be called by multiple threads concurrently.
+ * <p>
+ * For {@link OverflowPolicy#DROP_OLDEST}, enqueuing a pending post flagged with {@link PendingPost#dropsOldest} marks
+ * the next polled pending post of the same {@link QueueLimit} as {@link PendingPost#dropped}. Thus, the oldest event
+ * of this queue is dropped, not one of another queue or subscriber the limit applies to.
+ */
 final class PendingPostQueue {
+    /** Spins before parking for {@link WaitStrategy#SPIN_THEN_PARK}. */
+    private static final int SPINS = 1000;
+
+    private final WaitStrategy waitStrategy;
+    private final AtomicReference<PendingPost> tail;
+    /** Only accessed by the consumer. */
     private PendingPost head;
-    private PendingPost tail;
+    private volatile Thread waitingConsumer;
+    /** Pending drops by queue limit, see {@link PendingPost#dropsOldest}; created on the first one. */
+    private final AtomicReference<ConcurrentHashMap<QueueLimit, AtomicInteger>> dropsByLimit =
+            new AtomicReference<>();
+
+    PendingPostQueue() {
+        this(WaitStrategy.BLOCK);
+    }
+
+    PendingPostQueue(WaitStrategy waitStrategy) {
+        this.waitStrategy = waitStrategy;
+        head = PendingPost.createEmpty();
+        tail = new AtomicReference<>(head);
+    }
 
-    synchronized void enqueue(PendingPost pendingPost) {
+    void enqueue(PendingPost pendingPost) {
         if (pendingPost == null) {
             throw new NullPointerException("null cannot be enqueued");
         }
-        if (tail != null) {
-            tail.next = pendingPost;
-            tail = pendingPost;
-        } else if (head == null) {
-            head = tail = pendingPost;
-        } else {
-            throw new IllegalStateException("Head present, but no tail");
+        if (pendingPost.dropsOldest) {
+            // Before linking, so the drop cannot apply to a pending post enqueued after this one
+            addDrop(pendingPost.subscription.queueLimit);
+        }
+        PendingPost previous = tail.getAndSet(pendingPost);
+        // Until this is set, the consumer sees the queue as non-empty, but cannot poll yet
+        previous.next = pendingPost;
+        Thread consumer = waitingConsumer;
+        if (consumer != null) {
+            LockSupport.unpark(consumer);
         }
-        notifyAll();
     }
 
-    synchronized PendingPost poll() {
-        PendingPost pendingPost = head;
-        if (head != null) {
-            head = head.next;
-            if (head == null) {
-                tail = null;
+    /** Also false if a producer is about to link a pending post, which will be available to poll shortly. */
+    boolean isEmpty() {
+        return head == tail.get();
+    }
+
+    PendingPost poll() {
+        PendingPost first = head;
+        PendingPost next = first.next;
+        if (next == null) {
+            return null;
+        }
+        first.event = next.event;
+        first.subscription = next.subscription;
+        first.poolStripe = next.poolStripe;
+        first.dropped = dropsByLimit.get() != null && takeDrop(first.subscription);
+        next.event = null;
+        next.subscription = null;
+        head = next;
+        // No producer references the old head anymore as it cannot be the tail
+        first.next = null;
+        return first;
+    }
+
+    private void addDrop(QueueLimit queueLimit) {
+        ConcurrentHashMap<QueueLimit, AtomicInteger> drops = dropsByLimit.get();
+        if (drops == null) {
+            dropsByLimit.compareAndSet(null, new ConcurrentHashMap<QueueLimit, AtomicInteger>());
+            drops = dropsByLimit.get();
+        }
+        AtomicInteger count = drops.get(queueLimit);
+        if (count == null) {
+            AtomicInteger newCount = new AtomicInteger();
+            count = drops.putIfAbsent(queueLimit, newCount);
+            if (count == null) {
+                count = newCount;
             }
         }
-        return pendingPost;
+        count.incrementAndGet();
     }
 
-    synchronized PendingPost poll(int maxMillisToWait) throws InterruptedException {
-        if (head == null) {
-            wait(maxMillisToWait);
+    /** Only called by the consumer, so pending drops are only decremented by a single thread. */
+    private boolean takeDrop(Subscription subscription) {
+        QueueLimit queueLimit = subscription.queueLimit;
+        if (queueLimit == null || subscription.eventBatch != null) {
+            // The pending post of a batch holds no slot itself; its events are dropped by the batch
+            return false;
+        }
+        AtomicInteger count = dropsByLimit.get().get(queueLimit);
+        if (count == null || count.get() == 0) {
+            return false;
+        }
+        count.decrementAndGet();
+        return true;
+    }
+
+    PendingPost poll(int maxMillisToWait) throws InterruptedException {
+        PendingPost pendingPost = poll();
+        if (pendingPost != null) {
+            return pendingPost;
+        }
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(maxMillisToWait);
+        if (waitStrategy == WaitStrategy.SPIN_THEN_PARK) {
+            for (int i = 0; i < SPINS; i++) {
+                pendingPost = poll();
+                if (pendingPost != null) {
+                    return pendingPost;
+                }
+            }
+        }
+        while (true) {
+            pendingPost = poll();
+            if (pendingPost != null) {
+                return pendingPost;
+            }
+            long nanosToWait = deadline - System.nanoTime();
+            if (nanosToWait <= 0) {
+                return null;
+            }
+            if (waitStrategy == WaitStrategy.YIELD) {
+                Thread.yield();
+            } else {
+                park(nanosToWait);
+            }
+            if (Thread.interrupted()) {
+                throw new InterruptedException();
+            }
+        }
+    }
+
+    private void park(long nanosToWait) {
+        waitingConsumer = Thread.currentThread();
+        try {
+            // Check again after publishing the waiting thread: an enqueue just before would have missed it
+            if (isEmpty()) {
+                LockSupport.parkNanos(this, nanosToWait);
+            }
+        } finally {
+            waitingConsumer = null;
         }
-        return poll();
     }
 
 }
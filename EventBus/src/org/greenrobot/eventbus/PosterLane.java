@@ -0,0 +1,78 @@
+/*
+ * Copyright (C) 2012-2020 Markus Junginger, greenrobot (http://greenrobot.org)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.greenrobot.eventbus;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.logging.Level;
+
+/**
+ * Delivers queued events one after another in the order they were enqueued. The lane is only scheduled on the
+ * executor while it has work: once its queue stays empty for the linger time, the executor thread is given back.
+ */
+final class PosterLane implements Runnable {
+
+    private final EventBus eventBus;
+    private final Executor executor;
+    private final PendingPostQueue queue;
+    /** How long to wait for further events before giving back the thread; 0 to not wait. */
+    private final int lingerMillis;
+
+    private final AtomicBoolean executorRunning = new AtomicBoolean();
+
+    PosterLane(EventBus eventBus, Executor executor, WaitStrategy waitStrategy, int lingerMillis) {
+        this.eventBus = eventBus;
+        this.executor = executor;
+        this.lingerMillis = lingerMillis;
+        queue = new PendingPostQueue(waitStrategy);
+    }
+
+    void enqueue(PendingPost pendingPost) {
+        queue.enqueue(pendingPost);
+        if (executorRunning.compareAndSet(false, true)) {
+            executor.execute(this);
+        }
+    }
+
+    @Override
+    public void run() {
+        boolean stopped = false;
+        try {
+            try {
+                while (true) {
+                    PendingPost pendingPost = lingerMillis > 0 ? queue.poll(lingerMillis) : queue.poll();
+                    if (pendingPost == null) {
+                        executorRunning.set(false);
+                        // A producer may have enqueued after polling, but before it could see we are stopping
+                        if (queue.isEmpty() || !executorRunning.compareAndSet(false, true)) {
+                            stopped = true;
+                            return;
+                        }
+                        continue;
+                    }
+                    eventBus.invokeSubscriber(pendingPost);
+                }
+            } catch (InterruptedException e) {
+                eventBus.getLogger().log(Level.WARNING, Thread.currentThread().getName() + " was interrupted", e);
+            }
+        } finally {
+            if (!stopped) {
+                executorRunning.set(false);
+            }
+        }
+    }
+
+}
@@ -0,0 +1,168 @@
+/*
+ * Copyright (C) 2012-2020 Markus Junginger, greenrobot (http://greenrobot.org)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.greenrobot.eventbus;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Level;
+
+/**
+ * Limits the number of events queued for delivery in another thread, see
+ * {@link EventBusBuilder#queueCapacity(int, OverflowPolicy)}. Producers acquire a slot before enqueuing; the slot is
+ * released once the event is taken from the queue. Counting is done apart from the queues, so they stay lock-free;
+ * a limit may also span several queues (e.g. all background lanes).
+ */
+final class QueueLimit {
+    /** Returned by {@link #acquire(Subscription, Object, boolean)}: the event must not be enqueued. */
+    static final int REJECTED = 0;
+    /** Returned by {@link #acquire(Subscription, Object, boolean)}: the event may be enqueued. */
+    static final int ACQUIRED = 1;
+    /**
+     * Returned by {@link #acquire(Subscription, Object, boolean)}: the event may be enqueued, but the queue it goes to
+     * must drop its oldest event of this limit, see {@link PendingPost#dropsOldest}.
+     */
+    static final int ACQUIRED_DROP_OLDEST = 2;
+
+    /** Key in the queue limits of the EventBus. */
+    final Object key;
+    /** Subscriptions using this limit; guarded by the EventBus. */
+    int subscriptionCount;
+    private final String name;
+    private final int capacity;
+    private final OverflowPolicy policy;
+    // @Nullable
+    private final OverflowHandler overflowHandler;
+    private final AtomicLong overflowCount;
+    private final Logger logger;
+
+    private final AtomicInteger size = new AtomicInteger();
+    /** Written while synchronized on this. */
+    private volatile int blockedProducers;
+    /** Set on the first overflow, reset once the queue was drained; thus shedding is logged once per overload. */
+    private volatile boolean shedding;
+
+    QueueLimit(Object key, String name, int capacity, OverflowPolicy policy, OverflowHandler overflowHandler,
+               AtomicLong overflowCount, Logger logger) {
+        this.key = key;
+        this.name = name;
+        this.capacity = capacity;
+        this.policy = policy;
+        this.overflowHandler = overflowHandler;
+        this.overflowCount = overflowCount;
+        this.logger = logger;
+    }
+
+    /**
+     * Must be called before the event is enqueued.
+     *
+     * @param mayBlock false if the calling thread delivers queued events itself
+     * @return {@link #ACQUIRED} or {@link #ACQUIRED_DROP_OLDEST} if the event may be enqueued, {@link #REJECTED} if it
+     * was dropped or handed to the overflow handler
+     */
+    int acquire(Subscription subscription, Object event, boolean mayBlock) {
+        while (true) {
+            int current = size.get();
+            if (current >= capacity) {
+                break;
+            }
+            if (size.compareAndSet(current, current + 1)) {
+                return ACQUIRED;
+            }
+        }
+        switch (policy) {
+            case BLOCK:
+                if (mayBlock) {
+                    awaitCapacity();
+                } else {
+                    size.incrementAndGet();
+                }
+                return ACQUIRED;
+            case DROP_OLDEST:
+                if (size.get() < 2 * capacity) {
+                    size.incrementAndGet();
+                    reportOverflow();
+                    return ACQUIRED_DROP_OLDEST;
+                }
+                // The queue holds as many events to drop as to deliver: keep memory bounded
+                reportOverflow();
+                return REJECTED;
+            case DROP_NEWEST:
+                reportOverflow();
+                return REJECTED;
+            case CALLBACK:
+                reportOverflow();
+                overflowHandler.onOverflow(event, subscription.subscriber);
+                return REJECTED;
+            default:
+                throw new IllegalStateException("Unknown overflow policy: " + policy);
+        }
+    }
+
+    private void awaitCapacity() {
+        synchronized (this) {
+            blockedProducers++;
+            try {
+                while (true) {
+                    int current = size.get();
+                    if (current < capacity) {
+                        if (size.compareAndSet(current, current + 1)) {
+                            return;
+                        }
+                    } else {
+                        // Releasing consumers see the blocked producer before we check the size again
+                        wait();
+                    }
+                }
+            } catch (InterruptedException e) {
+                // Rather exceed the capacity than lose the event; the caller may check the interrupted status
+                Thread.currentThread().interrupt();
+                size.incrementAndGet();
+            } finally {
+                blockedProducers--;
+            }
+        }
+    }
+
+    /**
+     * Must be called once an event is taken from the queue, even if the subscription is no longer active or the event is
+     * dropped.
+     */
+    void release() {
+        release(1);
+    }
+
+    /** Releases the slots of several events taken at once, e.g. a batch. */
+    void release(int count) {
+        if (size.addAndGet(-count) == 0) {
+            shedding = false;
+        }
+        if (blockedProducers > 0) {
+            synchronized (this) {
+                notifyAll();
+            }
+        }
+    }
+
+    private void reportOverflow() {
+        overflowCount.incrementAndGet();
+        if (!shedding) {
+            shedding = true;
+            logger.log(Level.WARNING, "Queue for " + name + " is full (capacity " + capacity + "), overflow policy: "
+                    + policy);
+        }
+    }
+
+}
@@ -0,0 +1,100 @@
+/*
+ * Copyright (C) 2012-2020 Markus Junginger, greenrobot (http://greenrobot.org)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.greenrobot.eventbus;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Debounces or throttles the events of a subscription (see {@link Subscribe#debounceMillis()} and
+ * {@link Subscribe#throttleMillis()}) using the {@link HashedTimerWheel} of the bus: there is at most one timer per
+ * subscription, and no thread. Events delivered when a timer expires are handed to the poster of the subscription's
+ * thread mode.
+ */
+final class RateLimitedDelivery implements Runnable {
+
+    private final EventBus eventBus;
+    private final Subscription subscription;
+    private final Poster poster;
+    private final boolean debounce;
+    private final long intervalNanos;
+
+    /** The latest event not delivered yet; guarded by this. */
+    private Object pendingEvent;
+    /** For debounce: when the latest event was posted; guarded by this. */
+    private long lastEventNanos;
+    /** A timer is scheduled; for throttle, this also means an interval is running. Guarded by this. */
+    private boolean timerScheduled;
+
+    RateLimitedDelivery(EventBus eventBus, Subscription subscription, Poster poster) {
+        this.eventBus = eventBus;
+        this.subscription = subscription;
+        this.poster = poster;
+        SubscriberMethod subscriberMethod = subscription.subscriberMethod;
+        debounce = subscriberMethod.debounceMillis > 0;
+        long intervalMillis = debounce ? subscriberMethod.debounceMillis : subscriberMethod.throttleMillis;
+        intervalNanos = TimeUnit.MILLISECONDS.toNanos(intervalMillis);
+    }
+
+    /** @return true if the event should be delivered right away (first event of a throttle interval) */
+    boolean offer(Object event) {
+        synchronized (this) {
+            if (debounce) {
+                pendingEvent = event;
+                lastEventNanos = System.nanoTime();
+                if (timerScheduled) {
+                    // The timer reschedules itself until the quiet period has passed
+                    return false;
+                }
+            } else if (timerScheduled) {
+                pendingEvent = event;
+                return false;
+            }
+            timerScheduled = true;
+        }
+        schedule(intervalNanos);
+        return !debounce;
+    }
+
+    @Override
+    public void run() {
+        Object event;
+        synchronized (this) {
+            if (debounce) {
+                long remainingNanos = lastEventNanos + intervalNanos - System.nanoTime();
+                if (remainingNanos > 0) {
+                    schedule(remainingNanos);
+                    return;
+                }
+                timerScheduled = false;
+            } else if (pendingEvent != null) {
+                // Delivering starts the next interval
+                schedule(intervalNanos);
+            } else {
+                timerScheduled = false;
+            }
+            event = pendingEvent;
+            pendingEvent = null;
+        }
+        if (event != null) {
+            poster.enqueue(subscription, event);
+        }
+    }
+
+    private void schedule(long delayNanos) {
+        eventBus.getTimerWheel().schedule(this, delayNanos);
+    }
+
+}
@@ -0,0 +1,88 @@
+/*
+ * Copyright (C) 2012-2020 Markus Junginger, greenrobot (http://greenrobot.org)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.greenrobot.eventbus;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+
+/**
+ * Handle of an event posted later using {@link EventBus#postDelayed(Object, long, TimeUnit)} or
+ * {@link EventBus#postAt(Object, long)}, which allows to cancel it before it is posted.
+ * <p>
+ * Instances are also the nodes of the {@link HashedTimerWheel} of the bus, so scheduling an event allocates just this
+ * object. Internally, nodes may run a task instead of posting an event (e.g. for debouncing).
+ */
+public final class ScheduledPost {
+    private static final int SCHEDULED = 0;
+    private static final int CANCELED = 1;
+    private static final int POSTED = 2;
+
+    private static final AtomicIntegerFieldUpdater<ScheduledPost> STATE =
+            AtomicIntegerFieldUpdater.newUpdater(ScheduledPost.class, "state");
+
+    /** Cleared once canceled, so canceled events are not held until the timer wheel unlinks them. */
+    Object event;
+    /** The event is a {@link Runnable} to run in the timer thread instead of posting it. */
+    final boolean isTask;
+    final long deadlineNanos;
+    private volatile int state;
+
+    /** Links for the queue of new posts (see {@link HashedTimerWheel}). */
+    volatile ScheduledPost nextNew;
+
+    /** Link for the bucket of the timer wheel; only accessed by the timer thread. */
+    ScheduledPost next;
+    long remainingRounds;
+
+    ScheduledPost(Object event, long deadlineNanos) {
+        this(event, false, deadlineNanos);
+    }
+
+    ScheduledPost(Object event, boolean isTask, long deadlineNanos) {
+        this.event = event;
+        this.isTask = isTask;
+        this.deadlineNanos = deadlineNanos;
+    }
+
+    /**
+     * Cancels posting the event.
+     *
+     * @return true if the event will not be posted; false if it was already posted (or is being posted right now) or
+     * canceled before.
+     */
+    public boolean cancel() {
+        if (STATE.compareAndSet(this, SCHEDULED, CANCELED)) {
+            event = null;
+            return true;
+        }
+        return false;
+    }
+
+    public boolean isCanceled() {
+        return state == CANCELED;
+    }
+
+    /** True once the event was handed to {@link EventBus#post(Object)}. */
+    public boolean isPosted() {
+        return state == POSTED;
+    }
+
+    /** @return the event to post (or task to run), or null if this was canceled. */
+    Object expire() {
+        Object eventToPost = event;
+        return STATE.compareAndSet(this, SCHEDULED, POSTED) ? eventToPost : null;
+    }
+}
@@ -0,0 +1,25 @@
+/*
+ * Copyright (C) 2012-2020 Markus Junginger, greenrobot (http://greenrobot.org)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.greenrobot.eventbus;
+
+/**
+ * Estimates the memory held by a sticky event for {@link EventBusBuilder#maxStickyEventBytes(long, StickyEventSizer)}.
+ * Called when a sticky event is stored, so it should be fast; an approximation is fine.
+ */
+public interface StickyEventSizer {
+    /** @return approximate size in bytes, e.g. of the event object and of its (not shared) data */
+    long sizeOf(Object event);
+}
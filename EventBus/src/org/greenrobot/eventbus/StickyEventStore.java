@@ -0,0 +1,611 @@
+/*
+ * Copyright (C) 2012-2020 Markus Junginger, greenrobot (http://greenrobot.org)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.greenrobot.eventbus;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Holds the most recent sticky event per event class, and keyed sticky events per event class and key (see
+ * {@link EventBus#postSticky(Object, Object)}). In addition, an index maps each event type (super classes and
+ * interfaces included) to the classes of stored events assignable to it. This way, sticky events for an event type
+ * including its subtypes are found without iterating over all sticky events.
+ * <p>
+ * The store is lock-free: events are kept in {@link ConcurrentHashMap}s and updated using their atomic operations.
+ * Each event is wrapped in a {@link StoredEvent}, which is never modified, but replaced. Index entries are added
+ * before an event class is stored for the first time and never removed (there are only as many as event classes), so
+ * readers skip classes without a current event.
+ * <p>
+ * Optionally, the store is bounded (see {@link EventBusBuilder#stickyEventTimeToLive(Class, long, TimeUnit)},
+ * {@link EventBusBuilder#maxStickyEvents(int)} and
+ * {@link EventBusBuilder#maxStickyEventBytes(long, StickyEventSizer)}):
+ * <ul>
+ * <li>Expired entries are treated as absent by all reads, which remove them. In addition, writes sweep all entries
+ * for expired ones at most once a second, so expired entries not read anymore are removed too.</li>
+ * <li>Above the count or memory limit, entries are evicted in CLOCK order (approximating LRU): entries are queued when
+ * stored; the entry at the head is evicted, unless it was looked up by class or key since it was queued, which
+ * re-queues it once. Iterating over keyed events or replaying all of them to a new subscriber does not count.</li>
+ * </ul>
+ */
+final class StickyEventStore {
+    private static final long SWEEP_INTERVAL_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+    /** A stored sticky event. */
+    static final class StoredEvent {
+        final Object event;
+        final Class<?> eventClass;
+        /** Null if not keyed. */
+        final Object key;
+        final boolean expires;
+        final long expiresAtNanos;
+        final long size;
+        /** Set when read; gives the entry a second chance before it is evicted. */
+        volatile boolean referenced;
+        /** Set once removed from its map: replaced, removed, expired or evicted. */
+        volatile boolean removed;
+
+        StoredEvent(Object event, Object key, boolean expires, long expiresAtNanos, long size) {
+            this.event = event;
+            this.eventClass = event.getClass();
+            this.key = key;
+            this.expires = expires;
+            this.expiresAtNanos = expiresAtNanos;
+            this.size = size;
+        }
+    }
+
+    private final ConcurrentHashMap<Class<?>, StoredEvent> events = new ConcurrentHashMap<>();
+    /**
+     * Maps are never removed once created, like the index. Atomic operations like remove(key, value) must be called on
+     * ConcurrentHashMap references: the default methods of Map require Android API level 24.
+     */
+    private final ConcurrentHashMap<Class<?>, ConcurrentHashMap<Object, StoredEvent>> keyedEvents =
+            new ConcurrentHashMap<>();
+    private final Set<Class<?>> indexedClasses = newConcurrentSet();
+    /** Event type to the classes of events (ever) stored that are assignable to it. */
+    private final ConcurrentHashMap<Class<?>, Set<Class<?>>> classesByType = new ConcurrentHashMap<>();
+
+    // @Nullable
+    private final Map<Class<?>, Long> timeToLiveNanosByType;
+    /** Resolved time to live per event class; -1 if none applies. */
+    // @Nullable
+    private final ConcurrentHashMap<Class<?>, Long> timeToLiveNanosByClass;
+    private final AtomicLong lastSweepNanos = new AtomicLong();
+
+    private final int maxCount;
+    private final long maxBytes;
+    // @Nullable
+    private final StickyEventSizer sizer;
+    /** Entries in CLOCK order; null if unbounded. */
+    // @Nullable
+    private final ConcurrentLinkedQueue<StoredEvent> evictionQueue;
+    /** Entries in the eviction queue, including removed ones not polled yet. */
+    private final AtomicInteger queuedCount = new AtomicInteger();
+
+    private final AtomicInteger count = new AtomicInteger();
+    private final AtomicLong bytes = new AtomicLong();
+    final AtomicLong expiredCount = new AtomicLong();
+    final AtomicLong evictedCount = new AtomicLong();
+
+    StickyEventStore() {
+        this(null, 0, 0, null);
+    }
+
+    StickyEventStore(Map<Class<?>, Long> timeToLiveNanosByType, int maxCount, long maxBytes,
+                     StickyEventSizer sizer) {
+        this.timeToLiveNanosByType = timeToLiveNanosByType != null ?
+                new ConcurrentHashMap<>(timeToLiveNanosByType) : null;
+        timeToLiveNanosByClass = timeToLiveNanosByType != null ? new ConcurrentHashMap<Class<?>, Long>() : null;
+        this.maxCount = maxCount;
+        this.maxBytes = maxBytes;
+        this.sizer = sizer;
+        evictionQueue = maxCount > 0 || maxBytes > 0 ? new ConcurrentLinkedQueue<StoredEvent>() : null;
+    }
+
+    private static Set<Class<?>> newConcurrentSet() {
+        return Collections.newSetFromMap(new ConcurrentHashMap<Class<?>, Boolean>());
+    }
+
+    int getCount() {
+        return count.get();
+    }
+
+    long getBytes() {
+        return bytes.get();
+    }
+
+    Object get(Class<?> eventClass) {
+        StoredEvent entry = lookUp(events.get(eventClass), now());
+        return entry != null ? entry.event : null;
+    }
+
+    void put(Object event) {
+        StoredEvent entry = newEntry(event, null);
+        index(entry.eventClass);
+        added(entry, events.put(entry.eventClass, entry));
+    }
+
+    /** Stores the update if the current sticky event of its class equals the expected one (or is absent for null). */
+    boolean compareAndSet(Object expected, Object update) {
+        Class<?> eventClass = update.getClass();
+        if (expected != null && expected.getClass() != eventClass) {
+            throw new EventBusException("Expected and updated sticky events must be of the same class: " +
+                    expected.getClass() + " vs. " + eventClass);
+        }
+        StoredEvent entry = newEntry(update, null);
+        index(eventClass);
+        while (true) {
+            StoredEvent current = live(events.get(eventClass), now());
+            if (expected == null ? current != null : current == null || !expected.equals(current.event)) {
+                return false;
+            }
+            if (replace(eventClass, current, entry)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Updates the sticky event of the given class using the updater until no other thread changed it concurrently.
+     *
+     * @return the new sticky event, or null if it was removed
+     */
+    <T> T update(Class<T> eventClass, StickyEventUpdater<T> updater) {
+        while (true) {
+            StoredEvent current = live(events.get(eventClass), now());
+            T update = updater.update(current != null ? eventClass.cast(current.event) : null);
+            if (update == null) {
+                if (current == null) {
+                    return null;
+                } else if (events.remove(eventClass, current)) {
+                    removed(current);
+                    return null;
+                }
+            } else if (update.getClass() != eventClass) {
+                throw new EventBusException("Updated sticky event must be of class " + eventClass + ", but was " +
+                        update.getClass());
+            } else {
+                index(eventClass);
+                if (replace(eventClass, current, newEntry(update, null))) {
+                    return update;
+                }
+            }
+        }
+    }
+
+    private boolean replace(Class<?> eventClass, StoredEvent current, StoredEvent entry) {
+        boolean replaced = current == null ? events.putIfAbsent(eventClass, entry) == null :
+                events.replace(eventClass, current, entry);
+        if (replaced) {
+            added(entry, current);
+        }
+        return replaced;
+    }
+
+    Object remove(Class<?> eventClass) {
+        StoredEvent entry = events.remove(eventClass);
+        return entry != null ? removedEvent(entry) : null;
+    }
+
+    /** Removes the sticky event of the event's class if it equals the given event. */
+    boolean remove(Object event) {
+        Class<?> eventClass = event.getClass();
+        StoredEvent current = live(events.get(eventClass), now());
+        if (current != null && event.equals(current.event) && events.remove(eventClass, current)) {
+            removed(current);
+            return true;
+        }
+        return false;
+    }
+
+    void clear() {
+        for (Map.Entry<Class<?>, StoredEvent> mapEntry : events.entrySet()) {
+            if (events.remove(mapEntry.getKey(), mapEntry.getValue())) {
+                removed(mapEntry.getValue());
+            }
+        }
+        for (ConcurrentHashMap<Object, StoredEvent> entriesByKey : keyedEvents.values()) {
+            for (Map.Entry<Object, StoredEvent> mapEntry : entriesByKey.entrySet()) {
+                if (entriesByKey.remove(mapEntry.getKey(), mapEntry.getValue())) {
+                    removed(mapEntry.getValue());
+                }
+            }
+        }
+    }
+
+    Object getKeyed(Class<?> eventClass, Object key) {
+        ConcurrentHashMap<Object, StoredEvent> entriesByKey = keyedEvents.get(eventClass);
+        StoredEvent entry = entriesByKey != null ? lookUp(entriesByKey.get(key), now()) : null;
+        return entry != null ? entry.event : null;
+    }
+
+    /** @return live, unmodifiable view of the keyed sticky events of the class, or null if there never were any */
+    Map<Object, Object> getKeyedEvents(Class<?> eventClass) {
+        ConcurrentHashMap<Object, StoredEvent> entriesByKey = keyedEvents.get(eventClass);
+        return entriesByKey != null ? new KeyedEventsView(eventClass, entriesByKey) : null;
+    }
+
+    void putKeyed(Object key, Object event) {
+        StoredEvent entry = newEntry(event, key);
+        ConcurrentHashMap<Object, StoredEvent> entriesByKey = keyedEvents.get(entry.eventClass);
+        if (entriesByKey == null) {
+            index(entry.eventClass);
+            ConcurrentHashMap<Object, StoredEvent> newEntriesByKey = new ConcurrentHashMap<>();
+            entriesByKey = keyedEvents.putIfAbsent(entry.eventClass, newEntriesByKey);
+            if (entriesByKey == null) {
+                entriesByKey = newEntriesByKey;
+            }
+        }
+        added(entry, entriesByKey.put(key, entry));
+    }
+
+    Object removeKeyed(Class<?> eventClass, Object key) {
+        ConcurrentHashMap<Object, StoredEvent> entriesByKey = keyedEvents.get(eventClass);
+        StoredEvent entry = entriesByKey != null ? entriesByKey.remove(key) : null;
+        return entry != null ? removedEvent(entry) : null;
+    }
+
+    private void index(Class<?> eventClass) {
+        if (indexedClasses.contains(eventClass)) {
+            return;
+        }
+        for (Class<?> eventType : EventBus.lookupAllEventTypes(eventClass)) {
+            Set<Class<?>> classes = classesByType.get(eventType);
+            if (classes == null) {
+                Set<Class<?>> newClasses = newConcurrentSet();
+                classes = classesByType.putIfAbsent(eventType, newClasses);
+                if (classes == null) {
+                    classes = newClasses;
+                }
+            }
+            classes.add(eventClass);
+        }
+        // Only now: a concurrent thread must not skip indexing before it is complete
+        indexedClasses.add(eventClass);
+    }
+
+    /** @return (non-keyed) sticky events that are instances of the given type, or an empty list. */
+    List<Object> getAssignableTo(Class<?> eventType) {
+        Set<Class<?>> classes = classesByType.get(eventType);
+        if (classes == null) {
+            return Collections.emptyList();
+        }
+        long now = now();
+        List<Object> result = new ArrayList<>();
+        for (Class<?> eventClass : classes) {
+            StoredEvent entry = live(events.get(eventClass), now);
+            if (entry != null) {
+                result.add(entry.event);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Collects the sticky events to deliver to a new sticky subscription: the non-keyed ones and the keyed ones, either
+     * all or only the ones of the given key. Entries may expire before they are delivered, see
+     * {@link #getEvent(StoredEvent)}.
+     *
+     * @param includeSubtypes also collect events of event classes assignable to the given type
+     * @param key null for all keyed events
+     */
+    void collect(Class<?> eventType, boolean includeSubtypes, Object key, List<StoredEvent> result) {
+        long now = now();
+        if (!includeSubtypes) {
+            collectOfClass(eventType, key, now, result);
+        } else {
+            Set<Class<?>> classes = classesByType.get(eventType);
+            if (classes != null) {
+                for (Class<?> eventClass : classes) {
+                    collectOfClass(eventClass, key, now, result);
+                }
+            }
+        }
+    }
+
+    private void collectOfClass(Class<?> eventClass, Object key, long now, List<StoredEvent> result) {
+        StoredEvent entry = lookUp(events.get(eventClass), now);
+        if (entry != null) {
+            result.add(entry);
+        }
+        ConcurrentHashMap<Object, StoredEvent> entriesByKey = keyedEvents.get(eventClass);
+        if (entriesByKey != null) {
+            if (key == null) {
+                for (StoredEvent keyedEntry : entriesByKey.values()) {
+                    if (live(keyedEntry, now) != null) {
+                        result.add(keyedEntry);
+                    }
+                }
+            } else {
+                StoredEvent keyedEntry = lookUp(entriesByKey.get(key), now);
+                if (keyedEntry != null) {
+                    result.add(keyedEntry);
+                }
+            }
+        }
+    }
+
+    /** @return the event of the entry, or null if it expired in the meantime */
+    Object getEvent(StoredEvent entry) {
+        return entry.expires && System.nanoTime() - entry.expiresAtNanos >= 0 ? null : entry.event;
+    }
+
+    private long now() {
+        return timeToLiveNanosByType != null ? System.nanoTime() : 0;
+    }
+
+    /**
+     * Like {@link #live(StoredEvent, long)}, but also marks the entry as referenced for eviction. Only for looking up
+     * single entries; otherwise, iterating over all entries would give each one a second chance.
+     */
+    private StoredEvent lookUp(StoredEvent entry, long now) {
+        entry = live(entry, now);
+        if (entry != null && evictionQueue != null && !entry.referenced) {
+            entry.referenced = true;
+        }
+        return entry;
+    }
+
+    /** @return the entry if it is not null and not expired; expired entries are removed. */
+    private StoredEvent live(StoredEvent entry, long now) {
+        return entry == null || removeIfExpired(entry, now) ? null : entry;
+    }
+
+    private boolean removeIfExpired(StoredEvent entry, long now) {
+        if (entry.expires && now - entry.expiresAtNanos >= 0) {
+            if (removeFromMap(entry)) {
+                removed(entry);
+                expiredCount.incrementAndGet();
+            }
+            return true;
+        }
+        return false;
+    }
+
+    private boolean removeFromMap(StoredEvent entry) {
+        if (entry.key == null) {
+            return events.remove(entry.eventClass, entry);
+        }
+        ConcurrentHashMap<Object, StoredEvent> entriesByKey = keyedEvents.get(entry.eventClass);
+        return entriesByKey != null && entriesByKey.remove(entry.key, entry);
+    }
+
+    private StoredEvent newEntry(Object event, Object key) {
+        long size = sizer != null ? sizer.sizeOf(event) : 0;
+        long timeToLiveNanos = getTimeToLiveNanos(event.getClass());
+        if (timeToLiveNanos < 0) {
+            return new StoredEvent(event, key, false, 0, size);
+        }
+        return new StoredEvent(event, key, true, System.nanoTime() + timeToLiveNanos, size);
+    }
+
+    /** @return -1 if no time to live applies to the event class */
+    private long getTimeToLiveNanos(Class<?> eventClass) {
+        if (timeToLiveNanosByType == null) {
+            return -1;
+        }
+        Long timeToLive = timeToLiveNanosByClass.get(eventClass);
+        if (timeToLive == null) {
+            timeToLive = -1L;
+            // Event types are ordered from the most specific one
+            for (Class<?> eventType : EventBus.lookupAllEventTypes(eventClass)) {
+                Long typeTimeToLive = timeToLiveNanosByType.get(eventType);
+                if (typeTimeToLive != null) {
+                    timeToLive = typeTimeToLive;
+                    break;
+                }
+            }
+            timeToLiveNanosByClass.put(eventClass, timeToLive);
+        }
+        return timeToLive;
+    }
+
+    /** Must be called once an entry was stored, with the entry it replaced (if any). */
+    private void added(StoredEvent entry, StoredEvent previous) {
+        if (previous != null) {
+            removed(previous);
+        }
+        count.incrementAndGet();
+        bytes.addAndGet(entry.size);
+        if (evictionQueue != null) {
+            evictionQueue.offer(entry);
+            int queued = queuedCount.incrementAndGet();
+            if (queued > 2 * count.get() + 64) {
+                pollRemovedEntries();
+            }
+            evictIfNeeded();
+        }
+        if (timeToLiveNanosByType != null) {
+            sweepIfDue();
+        }
+    }
+
+    /** Must be called once an entry was removed from its map (by the thread which removed it). */
+    private void removed(StoredEvent entry) {
+        entry.removed = true;
+        count.decrementAndGet();
+        bytes.addAndGet(-entry.size);
+    }
+
+    private Object removedEvent(StoredEvent entry) {
+        removed(entry);
+        if (getEvent(entry) == null) {
+            expiredCount.incrementAndGet();
+            return null;
+        }
+        return entry.event;
+    }
+
+    private boolean isOverLimit() {
+        return (maxCount > 0 && count.get() > maxCount) || (maxBytes > 0 && bytes.get() > maxBytes);
+    }
+
+    private void evictIfNeeded() {
+        // Each entry is re-queued at most once per pass, so this is enough to evict one if possible
+        int maxPolls = 2 * queuedCount.get() + 1;
+        for (int i = 0; i < maxPolls && isOverLimit(); i++) {
+            StoredEvent entry = evictionQueue.poll();
+            if (entry == null) {
+                return;
+            }
+            if (entry.removed) {
+                queuedCount.decrementAndGet();
+            } else if (entry.referenced) {
+                entry.referenced = false;
+                evictionQueue.offer(entry);
+            } else {
+                queuedCount.decrementAndGet();
+                if (removeFromMap(entry)) {
+                    removed(entry);
+                    evictedCount.incrementAndGet();
+                }
+            }
+        }
+    }
+
+    /**
+     * Replaced and removed entries stay in the eviction queue until polled. If they make up most of it, poll a few on
+     * each update, so the queue does not grow while updates do not exceed the limits.
+     */
+    private void pollRemovedEntries() {
+        for (int i = 0; i < 2; i++) {
+            StoredEvent entry = evictionQueue.poll();
+            if (entry == null) {
+                return;
+            } else if (entry.removed) {
+                queuedCount.decrementAndGet();
+            } else {
+                evictionQueue.offer(entry);
+            }
+        }
+    }
+
+    private void sweepIfDue() {
+        long now = System.nanoTime();
+        long lastSweep = lastSweepNanos.get();
+        if (now - lastSweep < SWEEP_INTERVAL_NANOS || !lastSweepNanos.compareAndSet(lastSweep, now)) {
+            return;
+        }
+        for (StoredEvent entry : events.values()) {
+            removeIfExpired(entry, now);
+        }
+        for (ConcurrentHashMap<Object, StoredEvent> entriesByKey : keyedEvents.values()) {
+            for (StoredEvent entry : entriesByKey.values()) {
+                removeIfExpired(entry, now);
+            }
+        }
+    }
+
+    /**
+     * Unmodifiable view of keyed sticky events, hiding expired ones. If a time to live applies to the event class,
+     * {@link #size()} must check each entry, so it is O(n).
+     */
+    private final class KeyedEventsView extends AbstractMap<Object, Object> {
+        private final Class<?> eventClass;
+        private final ConcurrentHashMap<Object, StoredEvent> entriesByKey;
+
+        KeyedEventsView(Class<?> eventClass, ConcurrentHashMap<Object, StoredEvent> entriesByKey) {
+            this.eventClass = eventClass;
+            this.entriesByKey = entriesByKey;
+        }
+
+        @Override
+        public int size() {
+            return getTimeToLiveNanos(eventClass) < 0 ? entriesByKey.size() : entrySet().size();
+        }
+
+        @Override
+        public boolean isEmpty() {
+            return getTimeToLiveNanos(eventClass) < 0 ? entriesByKey.isEmpty() : !entrySet().iterator().hasNext();
+        }
+
+        @Override
+        public Object get(Object key) {
+            StoredEvent entry = lookUp(entriesByKey.get(key), now());
+            return entry != null ? entry.event : null;
+        }
+
+        @Override
+        public boolean containsKey(Object key) {
+            return get(key) != null;
+        }
+
+        @Override
+        public Set<Map.Entry<Object, Object>> entrySet() {
+            return new AbstractSet<Map.Entry<Object, Object>>() {
+                @Override
+                public Iterator<Map.Entry<Object, Object>> iterator() {
+                    return new LiveEntryIterator(entriesByKey.values().iterator());
+                }
+
+                @Override
+                public int size() {
+                    int size = 0;
+                    for (Iterator<Map.Entry<Object, Object>> iterator = iterator(); iterator.hasNext(); ) {
+                        iterator.next();
+                        size++;
+                    }
+                    return size;
+                }
+            };
+        }
+    }
+
+    private final class LiveEntryIterator implements Iterator<Map.Entry<Object, Object>> {
+        private final Iterator<StoredEvent> entries;
+        private final long now = now();
+        private StoredEvent next;
+
+        LiveEntryIterator(Iterator<StoredEvent> entries) {
+            this.entries = entries;
+        }
+
+        @Override
+        public boolean hasNext() {
+            while (next == null && entries.hasNext()) {
+                next = live(entries.next(), now);
+            }
+            return next != null;
+        }
+
+        @Override
+        public Map.Entry<Object, Object> next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            StoredEvent entry = next;
+            next = null;
+            return new AbstractMap.SimpleImmutableEntry<>(entry.key, entry.event);
+        }
+
+        @Override
+        public void remove() {
+            throw new UnsupportedOperationException();
+        }
+    }
+}
@@ -0,0 +1,31 @@
+/*
+ * Copyright (C) 2012-2020 Markus Junginger, greenrobot (http://greenrobot.org)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.greenrobot.eventbus;
+
+/**
+ * Computes a new sticky event from the current one, see {@link EventBus#updateSticky(Class, StickyEventUpdater)}.
+ * Like Java 8's UnaryOperator, which is not available on older Android versions.
+ */
+public interface StickyEventUpdater<T> {
+    /**
+     * May be called several times if other threads update the sticky event concurrently, so it should not have side
+     * effects.
+     *
+     * @param current the current sticky event, or null if there is none
+     * @return the new sticky event, or null to remove the current one
+     */
+    T update(T current);
+}
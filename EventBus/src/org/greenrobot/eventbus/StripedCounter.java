@@ -0,0 +1,59 @@
+/*
+ * Copyright (C) 2012-2020 Markus Junginger, greenrobot (http://greenrobot.org)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.greenrobot.eventbus;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Counter for statistics that many threads increment: each thread increments a cell of its own stripe, cells being
+ * on separate cache lines. Reading sums up all stripes. Similar to LongAdder, which is not available on older
+ * Android versions.
+ */
+final class StripedCounter {
+    /** Longs between two cells, so they are not on the same cache line. */
+    private static final int PADDING = 8;
+    private static final int STRIPES = stripeCount();
+
+    private final AtomicLongArray cells = new AtomicLongArray(STRIPES * PADDING);
+
+    /** Power of two with at least two stripes per CPU, up to 64. */
+    static int stripeCount() {
+        int processors = Runtime.getRuntime().availableProcessors();
+        int stripes = 2;
+        while (stripes < 2 * processors && stripes < 64) {
+            stripes <<= 1;
+        }
+        return stripes;
+    }
+
+    /** @param stripes must be a power of two */
+    static int currentStripe(int stripes) {
+        // Thread IDs are assigned sequentially, thus threads spread well across stripes
+        return (int) Thread.currentThread().getId() & (stripes - 1);
+    }
+
+    void increment() {
+        cells.getAndIncrement(currentStripe(STRIPES) * PADDING);
+    }
+
+    long get() {
+        long sum = 0;
+        for (int i = 0; i < STRIPES; i++) {
+            sum += cells.get(i * PADDING);
+        }
+        return sum;
+    }
+}
@@ -37,8 +37,51 @@ public @interface Subscribe {
 
     /** Subscriber priority to influence the order of event delivery.
      * Within the same delivery thread ({@link ThreadMode}), higher priority subscribers will receive events before
-     * others with a lower priority. The default priority is 0. Note: the priority does *NOT* affect the order of
-     * delivery among subscribers with different {@link ThreadMode}s! */
+     * others with a lower priority. This also applies to subscribers of super classes and interfaces of the event.
+     * The default priority is 0. Note: the priority does *NOT* affect the order of delivery among subscribers with
+     * different {@link ThreadMode}s! */
     int priority() default 0;
+
+    /**
+     * If true, a queued event not yet delivered to this subscriber is replaced by a newer one, so the subscriber only
+     * gets the latest event once it catches up. This suits state-like events, e.g. progress updates, of which only
+     * the latest is relevant. All events posted to this subscriber method share one slot, regardless of their
+     * classes. Only supported for thread modes queuing events: {@link ThreadMode#MAIN},
+     * {@link ThreadMode#MAIN_ORDERED}, {@link ThreadMode#BACKGROUND} and {@link ThreadMode#ASYNC_ORDERED}.
+     */
+    boolean conflate() default false;
+
+    /**
+     * If greater than 0, the subscriber method receives events in batches of up to this size: its parameter must be a
+     * {@link java.util.List} of the event type, e.g. {@code onEvents(List<MyEvent> events)}. Events are collected
+     * while a batch waits for delivery, so the subscriber catches up with a few calls. This suits subscribers writing
+     * to databases or indexes, where writing many rows at once is much cheaper. Only supported for
+     * {@link ThreadMode#BACKGROUND} (always delivered in a background thread), {@link ThreadMode#ASYNC} and
+     * {@link ThreadMode#ASYNC_ORDERED}.
+     */
+    int maxBatchSize() default 0;
+
+    /**
+     * For batches (see {@link #maxBatchSize()}): how long to wait for further events after the first one before
+     * delivering a batch that is not full yet. Default: 0, delivers right away; events posted until the subscriber is
+     * called still make it into the batch. Like {@link EventBus#postDelayed}, the timer has a resolution of 10 ms.
+     */
+    int batchLingerMillis() default 0;
+
+    /**
+     * If greater than 0, only the latest event is delivered once no further event was posted for this period, e.g. to
+     * recompute something after a burst of changes. Events are delivered using the thread of the thread mode; for
+     * {@link ThreadMode#POSTING} (or {@link ThreadMode#MAIN} without main thread), a background thread is used as
+     * the posting thread has moved on. Timers run in the timer thread of the bus with a resolution of 10 ms.
+     */
+    int debounceMillis() default 0;
+
+    /**
+     * If greater than 0, delivers at most one event per period, e.g. to refresh a UI at a limited rate. The first
+     * event is delivered right away and starts the period; of the events posted during the period, the latest is
+     * delivered at its end, starting the next period. Events delivered at the end of a period use the same threads as
+     * for {@link #debounceMillis()}.
+     */
+    int throttleMillis() default 0;
 }
 
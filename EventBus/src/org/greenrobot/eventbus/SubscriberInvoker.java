@@ -0,0 +1,29 @@
+/*
+ * Copyright (C) 2012-2020 Markus Junginger, greenrobot (http://greenrobot.org)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.greenrobot.eventbus;
+
+/**
+ * Calls a subscriber method directly, i.e. without {@link java.lang.reflect.Method#invoke(Object, Object...)}.
+ * Used internally by EventBus and generated subscriber indexes.
+ */
+public interface SubscriberInvoker {
+
+    /**
+     * Calls the subscriber method of the given subscriber with the given event. Anything thrown by the subscriber
+     * method is passed through as is (not wrapped).
+     */
+    void invoke(Object subscriber, Object event) throws Throwable;
+}
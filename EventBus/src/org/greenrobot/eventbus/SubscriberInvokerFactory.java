@@ -0,0 +1,114 @@
+/*
+ * Copyright (C) 2012-2020 Markus Junginger, greenrobot (http://greenrobot.org)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.greenrobot.eventbus;
+
+import org.greenrobot.eventbus.android.AndroidDependenciesDetector;
+
+import java.lang.invoke.CallSite;
+import java.lang.invoke.LambdaMetafactory;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+
+/**
+ * Creates {@link SubscriberInvoker}s for subscriber methods found via reflection. Uses {@link LambdaMetafactory} to
+ * spin a class calling the subscriber method directly, so delivery does not go through
+ * {@link Method#invoke(Object, Object...)} with its varargs array, access checks and exception wrapping.
+ * <p>
+ * If the JVM does not support it (e.g. on Android) or the method is not accessible to EventBus, no invoker is created
+ * and EventBus falls back to reflection.
+ */
+final class SubscriberInvokerFactory {
+
+    private static final boolean AVAILABLE = isAvailable();
+
+    private SubscriberInvokerFactory() {
+    }
+
+    private static boolean isAvailable() {
+        if (AndroidDependenciesDetector.isAndroidSDKAvailable()) {
+            return false;
+        }
+        try {
+            Class.forName("java.lang.invoke.LambdaMetafactory");
+            return true;
+        } catch (ClassNotFoundException e) {
+            return false;
+        }
+    }
+
+    /** @return the invoker or null if the method must be invoked using reflection. */
+    static SubscriberInvoker create(Method method) {
+        if (!AVAILABLE || !isAccessible(method)) {
+            return null;
+        }
+        try {
+            return LambdaInvokers.create(method);
+        } catch (Throwable th) {
+            // Anything going wrong here just means falling back to reflection
+            return null;
+        }
+    }
+
+    /**
+     * The generated class is defined next to EventBus, thus it must be able to access the method and resolve all
+     * involved classes like EventBus itself could.
+     */
+    private static boolean isAccessible(Method method) {
+        if (!Modifier.isPublic(method.getModifiers()) || Modifier.isStatic(method.getModifiers())) {
+            return false;
+        }
+        Class<?> declaringClass = method.getDeclaringClass();
+        Class<?>[] parameterTypes = method.getParameterTypes();
+        return parameterTypes.length == 1 && isPublicAndVisible(declaringClass)
+                && isPublicAndVisible(parameterTypes[0]);
+    }
+
+    private static boolean isPublicAndVisible(Class<?> clazz) {
+        for (Class<?> c = clazz; c != null; c = c.getEnclosingClass()) {
+            if (!Modifier.isPublic(c.getModifiers())) {
+                return false;
+            }
+        }
+        ClassLoader classLoader = SubscriberInvokerFactory.class.getClassLoader();
+        if (clazz.getClassLoader() == classLoader) {
+            return true;
+        }
+        try {
+            return Class.forName(clazz.getName(), false, classLoader) == clazz;
+        } catch (ClassNotFoundException e) {
+            return false;
+        }
+    }
+
+    /** Separate class so java.lang.invoke is only touched if available. */
+    private static final class LambdaInvokers {
+        private static final MethodType FACTORY_TYPE = MethodType.methodType(SubscriberInvoker.class);
+        private static final MethodType INVOKE_TYPE = MethodType.methodType(void.class, Object.class, Object.class);
+
+        static SubscriberInvoker create(Method method) throws Throwable {
+            MethodHandles.Lookup lookup = MethodHandles.lookup();
+            MethodHandle target = lookup.unreflect(method);
+            MethodType instantiatedType = MethodType.methodType(void.class, method.getDeclaringClass(),
+                    method.getParameterTypes()[0]);
+            CallSite callSite = LambdaMetafactory.metafactory(lookup, "invoke", FACTORY_TYPE, INVOKE_TYPE,
+                    target, instantiatedType);
+            return (SubscriberInvoker) callSite.getTarget().invokeExact();
+        }
+    }
+}
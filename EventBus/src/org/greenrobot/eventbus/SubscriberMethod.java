@@ -19,20 +19,73 @@ import java.lang.reflect.Method;
 
 /** Used internally by EventBus and generated subscriber indexes. */
 public class SubscriberMethod {
+    /** Null if created by a generated index providing an {@link #invoker}. */
     final Method method;
+    final Class<?> declaringClass;
+    final String methodName;
     final ThreadMode threadMode;
     final Class<?> eventType;
     final int priority;
     final boolean sticky;
+    final boolean conflate;
+    /** If greater than 0, the method takes a list of events of the event type. */
+    final int maxBatchSize;
+    final int batchLingerMillis;
+    final int debounceMillis;
+    final int throttleMillis;
+    /** Calls the method without reflection; null if reflection must be used. Set by {@link SubscriberMethodFinder}. */
+    SubscriberInvoker invoker;
     /** Used for efficient comparison */
     String methodString;
 
     public SubscriberMethod(Method method, Class<?> eventType, ThreadMode threadMode, int priority, boolean sticky) {
+        this(method, eventType, threadMode, priority, sticky, false, 0, 0, 0, 0);
+    }
+
+    public SubscriberMethod(Method method, Class<?> eventType, ThreadMode threadMode, int priority, boolean sticky,
+                            boolean conflate, int maxBatchSize, int batchLingerMillis, int debounceMillis,
+                            int throttleMillis) {
         this.method = method;
+        this.declaringClass = method.getDeclaringClass();
+        this.methodName = method.getName();
+        this.threadMode = threadMode;
+        this.eventType = eventType;
+        this.priority = priority;
+        this.sticky = sticky;
+        this.conflate = conflate;
+        this.maxBatchSize = maxBatchSize;
+        this.batchLingerMillis = batchLingerMillis;
+        this.debounceMillis = debounceMillis;
+        this.throttleMillis = throttleMillis;
+    }
+
+    /** For generated indexes calling the subscriber method directly, so no {@link Method} is required. */
+    public SubscriberMethod(Class<?> declaringClass, String methodName, Class<?> eventType, ThreadMode threadMode,
+                            int priority, boolean sticky, SubscriberInvoker invoker) {
+        this(declaringClass, methodName, eventType, threadMode, priority, sticky, false, 0, 0, 0, 0, invoker);
+    }
+
+    /** For generated indexes calling the subscriber method directly, so no {@link Method} is required. */
+    public SubscriberMethod(Class<?> declaringClass, String methodName, Class<?> eventType, ThreadMode threadMode,
+                            int priority, boolean sticky, boolean conflate, int maxBatchSize,
+                            int batchLingerMillis, int debounceMillis, int throttleMillis,
+                            SubscriberInvoker invoker) {
+        if (invoker == null) {
+            throw new IllegalArgumentException("Invoker required for " + declaringClass + "." + methodName);
+        }
+        this.method = null;
+        this.declaringClass = declaringClass;
+        this.methodName = methodName;
         this.threadMode = threadMode;
         this.eventType = eventType;
         this.priority = priority;
         this.sticky = sticky;
+        this.conflate = conflate;
+        this.maxBatchSize = maxBatchSize;
+        this.batchLingerMillis = batchLingerMillis;
+        this.debounceMillis = debounceMillis;
+        this.throttleMillis = throttleMillis;
+        this.invoker = invoker;
     }
 
     @Override
@@ -54,15 +107,20 @@ public class SubscriberMethod {
         if (methodString == null) {
             // Method.toString has more overhead, just take relevant parts of the method
             StringBuilder builder = new StringBuilder(64);
-            builder.append(method.getDeclaringClass().getName());
-            builder.append('#').append(method.getName());
-            builder.append('(').append(eventType.getName());
+            builder.append(declaringClass.getName());
+            builder.append('#').append(methodName);
+            builder.append('(');
+            if (maxBatchSize > 0) {
+                builder.append("java.util.List<");
+            }
+            builder.append(eventType.getName());
             methodString = builder.toString();
         }
     }
 
     @Override
     public int hashCode() {
-        return method.hashCode();
+        // Same as Method.hashCode()
+        return declaringClass.getName().hashCode() ^ methodName.hashCode();
     }
-}
\ No newline at end of file
+}
@@ -20,6 +20,10 @@ import org.greenrobot.eventbus.meta.SubscriberInfoIndex;
 
 import java.lang.reflect.Method;
 import java.lang.reflect.Modifier;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.lang.reflect.TypeVariable;
+import java.lang.reflect.WildcardType;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
@@ -67,11 +71,21 @@ class SubscriberMethodFinder {
             throw new EventBusException("Subscriber " + subscriberClass
                     + " and its super classes have no public methods with the @Subscribe annotation");
         } else {
+            createInvokers(subscriberMethods);
             METHOD_CACHE.put(subscriberClass, subscriberMethods);
             return subscriberMethods;
         }
     }
 
+    /** Done once per subscriber class before caching, so event delivery can avoid reflection. */
+    private void createInvokers(List<SubscriberMethod> subscriberMethods) {
+        for (SubscriberMethod subscriberMethod : subscriberMethods) {
+            if (subscriberMethod.invoker == null && subscriberMethod.method != null) {
+                subscriberMethod.invoker = SubscriberInvokerFactory.create(subscriberMethod.method);
+            }
+        }
+    }
+
     private List<SubscriberMethod> findUsingInfo(Class<?> subscriberClass) {
         FindState findState = prepareFindState();
         findState.initForSubscriber(subscriberClass);
@@ -80,7 +94,7 @@ class SubscriberMethodFinder {
             if (findState.subscriberInfo != null) {
                 SubscriberMethod[] array = findState.subscriberInfo.getSubscriberMethods();
                 for (SubscriberMethod subscriberMethod : array) {
-                    if (findState.checkAdd(subscriberMethod.method, subscriberMethod.eventType)) {
+                    if (findState.checkAdd(subscriberMethod)) {
                         findState.subscriberMethods.add(subscriberMethod);
                     }
                 }
@@ -174,11 +188,15 @@ class SubscriberMethodFinder {
                 if (parameterTypes.length == 1) {
                     Subscribe subscribeAnnotation = method.getAnnotation(Subscribe.class);
                     if (subscribeAnnotation != null) {
-                        Class<?> eventType = parameterTypes[0];
-                        if (findState.checkAdd(method, eventType)) {
-                            ThreadMode threadMode = subscribeAnnotation.threadMode();
-                            findState.subscriberMethods.add(new SubscriberMethod(method, eventType, threadMode,
-                                    subscribeAnnotation.priority(), subscribeAnnotation.sticky()));
+                        int maxBatchSize = subscribeAnnotation.maxBatchSize();
+                        Class<?> eventType = maxBatchSize > 0 ? getBatchEventType(method) : parameterTypes[0];
+                        ThreadMode threadMode = subscribeAnnotation.threadMode();
+                        SubscriberMethod subscriberMethod = new SubscriberMethod(method, eventType, threadMode,
+                                subscribeAnnotation.priority(), subscribeAnnotation.sticky(),
+                                subscribeAnnotation.conflate(), maxBatchSize, subscribeAnnotation.batchLingerMillis(),
+                                subscribeAnnotation.debounceMillis(), subscribeAnnotation.throttleMillis());
+                        if (findState.checkAdd(subscriberMethod)) {
+                            findState.subscriberMethods.add(subscriberMethod);
                         }
                     }
                 } else if (strictMethodVerification && method.isAnnotationPresent(Subscribe.class)) {
@@ -194,6 +212,29 @@ class SubscriberMethodFinder {
         }
     }
 
+    /** Gets the element type of the List parameter of a method receiving batches. */
+    private static Class<?> getBatchEventType(Method method) {
+        Type parameterType = method.getGenericParameterTypes()[0];
+        if (parameterType instanceof ParameterizedType &&
+                ((ParameterizedType) parameterType).getRawType() == List.class) {
+            Type elementType = ((ParameterizedType) parameterType).getActualTypeArguments()[0];
+            if (elementType instanceof WildcardType) {
+                elementType = ((WildcardType) elementType).getUpperBounds()[0];
+            } else if (elementType instanceof TypeVariable) {
+                elementType = ((TypeVariable<?>) elementType).getBounds()[0];
+            }
+            if (elementType instanceof ParameterizedType) {
+                elementType = ((ParameterizedType) elementType).getRawType();
+            }
+            if (elementType instanceof Class) {
+                return (Class<?>) elementType;
+            }
+        }
+        String methodName = method.getDeclaringClass().getName() + "." + method.getName();
+        throw new EventBusException("@Subscribe method " + methodName +
+                " receives batches, so its parameter must be a List of the event type, but is " + parameterType);
+    }
+
     static void clearCaches() {
         METHOD_CACHE.clear();
     }
@@ -226,32 +267,34 @@ class SubscriberMethodFinder {
             subscriberInfo = null;
         }
 
-        boolean checkAdd(Method method, Class<?> eventType) {
+        boolean checkAdd(SubscriberMethod method) {
             // 2 level check: 1st level with event type only (fast), 2nd level with complete signature when required.
             // Usually a subscriber doesn't have methods listening to the same event type.
-            Object existing = anyMethodByEventType.put(eventType, method);
+            Object existing = anyMethodByEventType.put(method.eventType, method);
             if (existing == null) {
                 return true;
             } else {
-                if (existing instanceof Method) {
-                    if (!checkAddWithMethodSignature((Method) existing, eventType)) {
+                if (existing instanceof SubscriberMethod) {
+                    if (!checkAddWithMethodSignature((SubscriberMethod) existing)) {
                         // Paranoia check
                         throw new IllegalStateException();
                     }
-                    // Put any non-Method object to "consume" the existing Method
-                    anyMethodByEventType.put(eventType, this);
+                    // Put any non-SubscriberMethod object to "consume" the existing SubscriberMethod
+                    anyMethodByEventType.put(method.eventType, this);
                 }
-                return checkAddWithMethodSignature(method, eventType);
+                return checkAddWithMethodSignature(method);
             }
         }
 
-        private boolean checkAddWithMethodSignature(Method method, Class<?> eventType) {
+        private boolean checkAddWithMethodSignature(SubscriberMethod method) {
             methodKeyBuilder.setLength(0);
-            methodKeyBuilder.append(method.getName());
-            methodKeyBuilder.append('>').append(eventType.getName());
+            methodKeyBuilder.append(method.methodName);
+            // The actual parameter type: a batch method onEvent(List<Foo>) does not override onEvent(Foo)
+            Class<?> parameterType = method.maxBatchSize > 0 ? List.class : method.eventType;
+            methodKeyBuilder.append('>').append(parameterType.getName());
 
             String methodKey = methodKeyBuilder.toString();
-            Class<?> methodClass = method.getDeclaringClass();
+            Class<?> methodClass = method.declaringClass;
             Class<?> methodClassOld = subscriberClassByMethodKey.put(methodKey, methodClass);
             if (methodClassOld == null || methodClassOld.isAssignableFrom(methodClass)) {
                 // Only add if not already found in a sub class
@@ -15,6 +15,8 @@
  */
 package org.greenrobot.eventbus;
 
+import java.util.concurrent.atomic.AtomicReference;
+
 final class Subscription {
     final Object subscriber;
     final SubscriberMethod subscriberMethod;
@@ -23,11 +25,25 @@ final class Subscription {
      * {@link EventBus#invokeSubscriber(PendingPost)} to prevent race conditions.
      */
     volatile boolean active;
+    /** The subscriber's mailbox for {@link ThreadMode#ASYNC_ORDERED}, shared by its subscriptions; null otherwise. */
+    PosterLane mailbox;
+    /** Limits the events queued for this subscription, see {@link QueueLimit}; null if not limited. */
+    QueueLimit queueLimit;
+    /**
+     * For conflating subscriber methods, the latest event waiting for delivery (null if none); null for others.
+     * A pending post is only queued if there was no waiting event before.
+     */
+    final AtomicReference<Object> conflatedEvent;
+    /** Collects events for subscriber methods receiving batches; null otherwise. */
+    EventBatch eventBatch;
+    /** Debounces or throttles events; null if not configured for the subscriber method. */
+    RateLimitedDelivery rateLimitedDelivery;
 
     Subscription(Object subscriber, SubscriberMethod subscriberMethod) {
         this.subscriber = subscriber;
         this.subscriberMethod = subscriberMethod;
         active = true;
+        conflatedEvent = subscriberMethod.conflate ? new AtomicReference<>() : null;
     }
 
     @Override
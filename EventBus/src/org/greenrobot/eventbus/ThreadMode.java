@@ -51,7 +51,9 @@ public enum ThreadMode {
      * On Android, subscriber will be called in a background thread. If posting thread is not the main thread, subscriber methods
      * will be called directly in the posting thread. If the posting thread is the main thread, EventBus uses a single
      * background thread, that will deliver all its events sequentially. Subscribers using this mode should try to
-     * return quickly to avoid blocking the background thread.
+     * return quickly to avoid blocking the background thread. To not let a slow subscriber hold up all others,
+     * configure multiple lanes using {@link EventBusBuilder#backgroundLanes(int)}; each subscriber still receives its
+     * events in order.
      * <p>
      * If not on Android, always uses a background thread.
      */
@@ -63,6 +65,22 @@ public enum ThreadMode {
      * use this mode if their execution might take some time, e.g. for network access. Avoid triggering a large number
      * of long-running asynchronous subscriber methods at the same time to limit the number of concurrent threads. EventBus
      * uses a thread pool to efficiently reuse threads from completed asynchronous subscriber notifications.
+     * <p>
+     * By default, the thread pool is bounded (two threads per processor, at least four) and shared by all EventBus
+     * instances; further events wait in its queue. Unlike with the unbounded pool used before, an async subscriber
+     * that waits for another async subscriber (e.g. for an event it posts) may thus starve or deadlock once all
+     * threads are busy waiting. Restore the unbounded behavior with
+     * {@link EventBusBuilder#asyncExecutorService(java.util.concurrent.ExecutorService)} and
+     * {@link java.util.concurrent.Executors#newCachedThreadPool()} if needed.
+     */
+    ASYNC,
+
+    /**
+     * Subscriber will be called in a separate thread like {@link #ASYNC}, but each subscriber receives its events one
+     * after another in the order they were posted, like an actor with a mailbox. Different subscribers are called
+     * concurrently. A subscriber only occupies a thread of the thread pool while it has events to process, so this
+     * mode can replace a dedicated single thread executor per subscriber. Ordering applies to all methods of a
+     * subscriber using this mode.
      */
-    ASYNC
+    ASYNC_ORDERED
 }
\ No newline at end of file
@@ -0,0 +1,58 @@
+/*
+ * Copyright (C) 2012-2020 Markus Junginger, greenrobot (http://greenrobot.org)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.greenrobot.eventbus;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Provides an executor service starting a virtual thread per task if the runtime supports it (Java 21+). EventBus is
+ * compiled for Java 8, so the factory method is looked up reflectively.
+ */
+final class VirtualThreads {
+
+    private static final Method NEW_EXECUTOR_METHOD = findNewExecutorMethod();
+
+    private static ExecutorService executorService;
+
+    private VirtualThreads() {
+    }
+
+    private static Method findNewExecutorMethod() {
+        try {
+            return Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+        } catch (NoSuchMethodException e) {
+            return null;
+        }
+    }
+
+    static boolean isAvailable() {
+        return NEW_EXECUTOR_METHOD != null;
+    }
+
+    /** @return shared executor service like the default one, or null if virtual threads are not available. */
+    static synchronized ExecutorService getExecutorService() {
+        if (executorService == null && NEW_EXECUTOR_METHOD != null) {
+            try {
+                executorService = (ExecutorService) NEW_EXECUTOR_METHOD.invoke(null);
+            } catch (Exception e) {
+                throw new EventBusException("Could not create virtual thread executor", e);
+            }
+        }
+        return executorService;
+    }
+}
@@ -0,0 +1,41 @@
+/*
+ * Copyright (C) 2012-2020 Markus Junginger, greenrobot (http://greenrobot.org)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.greenrobot.eventbus;
+
+/**
+ * Determines how a background thread delivering events waits for the next event once its queue is empty.
+ *
+ * @see EventBusBuilder#waitStrategy(WaitStrategy)
+ */
+public enum WaitStrategy {
+    /**
+     * This is the default. The thread is parked right away and woken up by the next posting thread. Uses no CPU while
+     * waiting, but waking up takes a few microseconds.
+     */
+    BLOCK,
+
+    /**
+     * The thread busy-spins for a short while before it is parked. Events posted in short succession are picked up
+     * with lower latency at the cost of some CPU time.
+     */
+    SPIN_THEN_PARK,
+
+    /**
+     * The thread yields until the next event arrives or it stops waiting. Lowest latency, but keeps a CPU core
+     * busy while waiting; only use this if there are enough cores available.
+     */
+    YIELD
+}
@@ -16,10 +16,12 @@
 package org.greenrobot.eventbus.meta;
 
 import org.greenrobot.eventbus.EventBusException;
+import org.greenrobot.eventbus.SubscriberInvoker;
 import org.greenrobot.eventbus.SubscriberMethod;
 import org.greenrobot.eventbus.ThreadMode;
 
 import java.lang.reflect.Method;
+import java.util.List;
 
 /** Base class for generated subscriber meta info classes created by annotation processing. */
 public abstract class AbstractSubscriberInfo implements SubscriberInfo {
@@ -68,13 +70,42 @@ public abstract class AbstractSubscriberInfo implements SubscriberInfo {
 
     protected SubscriberMethod createSubscriberMethod(String methodName, Class<?> eventType, ThreadMode threadMode,
                                                       int priority, boolean sticky) {
+        return createSubscriberMethod(methodName, eventType, threadMode, priority, sticky, false, 0, 0, 0, 0);
+    }
+
+    protected SubscriberMethod createSubscriberMethod(String methodName, Class<?> eventType, ThreadMode threadMode,
+                                                      int priority, boolean sticky, boolean conflate,
+                                                      int maxBatchSize, int batchLingerMillis, int debounceMillis,
+                                                      int throttleMillis) {
         try {
-            Method method = subscriberClass.getDeclaredMethod(methodName, eventType);
-            return new SubscriberMethod(method, eventType, threadMode, priority, sticky);
+            Class<?> parameterType = maxBatchSize > 0 ? List.class : eventType;
+            Method method = subscriberClass.getDeclaredMethod(methodName, parameterType);
+            return new SubscriberMethod(method, eventType, threadMode, priority, sticky, conflate, maxBatchSize,
+                    batchLingerMillis, debounceMillis, throttleMillis);
         } catch (NoSuchMethodException e) {
             throw new EventBusException("Could not find subscriber method in " + subscriberClass +
                     ". Maybe a missing ProGuard rule?", e);
         }
     }
 
+    protected SubscriberMethod createSubscriberMethod(String methodName, Class<?> eventType, ThreadMode threadMode,
+                                                      int priority, boolean sticky, SubscriberInvoker invoker) {
+        return createSubscriberMethod(methodName, eventType, threadMode, priority, sticky, false, 0, 0, 0, 0,
+                invoker);
+    }
+
+    /** If an invoker is given, no reflection is used; otherwise the method is looked up by its name. */
+    protected SubscriberMethod createSubscriberMethod(String methodName, Class<?> eventType, ThreadMode threadMode,
+                                                      int priority, boolean sticky, boolean conflate,
+                                                      int maxBatchSize, int batchLingerMillis, int debounceMillis,
+                                                      int throttleMillis, SubscriberInvoker invoker) {
+        if (invoker != null) {
+            return new SubscriberMethod(subscriberClass, methodName, eventType, threadMode, priority, sticky,
+                    conflate, maxBatchSize, batchLingerMillis, debounceMillis, throttleMillis, invoker);
+        } else {
+            return createSubscriberMethod(methodName, eventType, threadMode, priority, sticky, conflate,
+                    maxBatchSize, batchLingerMillis, debounceMillis, throttleMillis);
+        }
+    }
+
 }
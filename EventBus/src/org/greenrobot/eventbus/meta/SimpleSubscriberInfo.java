@@ -36,7 +36,8 @@ public class SimpleSubscriberInfo extends AbstractSubscriberInfo {
         for (int i = 0; i < length; i++) {
             SubscriberMethodInfo info = methodInfos[i];
             methods[i] = createSubscriberMethod(info.methodName, info.eventType, info.threadMode,
-                    info.priority, info.sticky);
+                    info.priority, info.sticky, info.conflate, info.maxBatchSize, info.batchLingerMillis,
+                    info.debounceMillis, info.throttleMillis, info.invoker);
         }
         return methods;
     }
@@ -15,6 +15,7 @@
  */
 package org.greenrobot.eventbus.meta;
 
+import org.greenrobot.eventbus.SubscriberInvoker;
 import org.greenrobot.eventbus.ThreadMode;
 
 public class SubscriberMethodInfo {
@@ -23,14 +24,39 @@ public class SubscriberMethodInfo {
     final Class<?> eventType;
     final int priority;
     final boolean sticky;
+    final boolean conflate;
+    final int maxBatchSize;
+    final int batchLingerMillis;
+    final int debounceMillis;
+    final int throttleMillis;
+    /** Calls the subscriber method directly; if null, the method is looked up and invoked using reflection. */
+    final SubscriberInvoker invoker;
 
     public SubscriberMethodInfo(String methodName, Class<?> eventType, ThreadMode threadMode,
-                                int priority, boolean sticky) {
+                                int priority, boolean sticky, boolean conflate, int maxBatchSize,
+                                int batchLingerMillis, int debounceMillis, int throttleMillis,
+                                SubscriberInvoker invoker) {
         this.methodName = methodName;
         this.threadMode = threadMode;
         this.eventType = eventType;
         this.priority = priority;
         this.sticky = sticky;
+        this.conflate = conflate;
+        this.maxBatchSize = maxBatchSize;
+        this.batchLingerMillis = batchLingerMillis;
+        this.debounceMillis = debounceMillis;
+        this.throttleMillis = throttleMillis;
+        this.invoker = invoker;
+    }
+
+    public SubscriberMethodInfo(String methodName, Class<?> eventType, ThreadMode threadMode,
+                                int priority, boolean sticky, SubscriberInvoker invoker) {
+        this(methodName, eventType, threadMode, priority, sticky, false, 0, 0, 0, 0, invoker);
+    }
+
+    public SubscriberMethodInfo(String methodName, Class<?> eventType, ThreadMode threadMode,
+                                int priority, boolean sticky) {
+        this(methodName, eventType, threadMode, priority, sticky, null);
     }
 
     public SubscriberMethodInfo(String methodName, Class<?> eventType) {
@@ -41,4 +67,13 @@ public class SubscriberMethodInfo {
         this(methodName, eventType, threadMode, 0, false);
     }
 
+    public SubscriberMethodInfo(String methodName, Class<?> eventType, SubscriberInvoker invoker) {
+        this(methodName, eventType, ThreadMode.POSTING, 0, false, invoker);
+    }
+
+    public SubscriberMethodInfo(String methodName, Class<?> eventType, ThreadMode threadMode,
+                                SubscriberInvoker invoker) {
+        this(methodName, eventType, threadMode, 0, false, invoker);
+    }
+
 }
\ No newline at end of file
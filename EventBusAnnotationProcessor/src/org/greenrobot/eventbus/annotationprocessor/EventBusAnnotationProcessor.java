@@ -43,6 +43,7 @@ import javax.lang.model.type.DeclaredType;
 import javax.lang.model.type.TypeKind;
 import javax.lang.model.type.TypeMirror;
 import javax.lang.model.type.TypeVariable;
+import javax.lang.model.type.WildcardType;
 import javax.tools.Diagnostic;
 import javax.tools.JavaFileObject;
 
@@ -61,10 +62,15 @@ import static net.ltgt.gradle.incap.IncrementalAnnotationProcessorType.AGGREGATI
 public class EventBusAnnotationProcessor extends AbstractProcessor {
     public static final String OPTION_EVENT_BUS_INDEX = "eventBusIndex";
     public static final String OPTION_VERBOSE = "verbose";
+    private static final String INVOKER_CLASS = "DirectInvoker";
+    /** Keeps each generated switch far below the 64 KB limit of a method (and small enough to be JIT compiled). */
+    private static final int INVOKER_CALLS_PER_METHOD = 200;
 
     /** Found subscriber methods for a class (without superclasses). */
     private final ListMap<TypeElement, ExecutableElement> methodsByClass = new ListMap<>();
     private final Set<TypeElement> classesToSkip = new HashSet<>();
+    /** Direct calls of subscriber methods, the index is the ID used by the generated invoker. */
+    private final List<String> invokerCalls = new ArrayList<>();
 
     private boolean writerRoundDone;
     private int round;
@@ -159,6 +165,49 @@ public class EventBusAnnotationProcessor extends AbstractProcessor {
             messager.printMessage(Diagnostic.Kind.ERROR, "Subscriber method must have exactly 1 parameter", element);
             return false;
         }
+
+        Subscribe subscribe = element.getAnnotation(Subscribe.class);
+        ThreadMode threadMode = subscribe.threadMode();
+        if (subscribe.conflate() && (threadMode == ThreadMode.POSTING || threadMode == ThreadMode.ASYNC)) {
+            messager.printMessage(Diagnostic.Kind.ERROR, "Thread mode " + threadMode +
+                    " does not support conflation", element);
+            return false;
+        }
+        if (subscribe.maxBatchSize() > 0) {
+            if (threadMode != ThreadMode.BACKGROUND && threadMode != ThreadMode.ASYNC &&
+                    threadMode != ThreadMode.ASYNC_ORDERED) {
+                messager.printMessage(Diagnostic.Kind.ERROR, "Thread mode " + threadMode +
+                        " does not support batches", element);
+                return false;
+            }
+            if (subscribe.conflate()) {
+                messager.printMessage(Diagnostic.Kind.ERROR, "Batches cannot be conflated", element);
+                return false;
+            }
+            if (subscribe.batchLingerMillis() < 0) {
+                messager.printMessage(Diagnostic.Kind.ERROR, "Batch linger time must not be negative", element);
+                return false;
+            }
+            if (getBatchElementType(parameters.get(0)) == null) {
+                messager.printMessage(Diagnostic.Kind.ERROR,
+                        "Subscriber method receiving batches must have a List parameter", element);
+                return false;
+            }
+        }
+        if (subscribe.debounceMillis() != 0 || subscribe.throttleMillis() != 0) {
+            String error = null;
+            if (subscribe.debounceMillis() < 0 || subscribe.throttleMillis() < 0) {
+                error = "Debounce and throttle periods must not be negative";
+            } else if (subscribe.debounceMillis() > 0 && subscribe.throttleMillis() > 0) {
+                error = "Cannot debounce and throttle at the same time";
+            } else if (subscribe.conflate() || subscribe.maxBatchSize() > 0) {
+                error = "Debounce and throttle cannot be combined with conflation or batches";
+            }
+            if (error != null) {
+                messager.printMessage(Diagnostic.Kind.ERROR, error, element);
+                return false;
+            }
+        }
         return true;
     }
 
@@ -188,7 +237,7 @@ public class EventBusAnnotationProcessor extends AbstractProcessor {
                     for (ExecutableElement method : methods) {
                         String skipReason = null;
                         VariableElement param = method.getParameters().get(0);
-                        TypeMirror typeMirror = getParamTypeMirror(param, messager);
+                        TypeMirror typeMirror = getEventTypeMirror(method, messager);
                         if (!(typeMirror instanceof DeclaredType) ||
                                 !(((DeclaredType) typeMirror).asElement() instanceof TypeElement)) {
                             skipReason = "event type cannot be processed";
@@ -217,6 +266,41 @@ public class EventBusAnnotationProcessor extends AbstractProcessor {
         }
     }
 
+    /** For methods receiving batches, the event type is the element type of the List parameter. */
+    private TypeMirror getEventTypeMirror(ExecutableElement method, Messager messager) {
+        VariableElement param = method.getParameters().get(0);
+        if (method.getAnnotation(Subscribe.class).maxBatchSize() > 0) {
+            return getBatchElementType(param);
+        } else {
+            return getParamTypeMirror(param, messager);
+        }
+    }
+
+    /** @return null if the parameter is not a List with a type argument */
+    private TypeMirror getBatchElementType(VariableElement param) {
+        TypeMirror typeMirror = param.asType();
+        if (!(typeMirror instanceof DeclaredType)) {
+            return null;
+        }
+        DeclaredType declaredType = (DeclaredType) typeMirror;
+        TypeElement typeElement = (TypeElement) declaredType.asElement();
+        if (!typeElement.getQualifiedName().contentEquals("java.util.List")
+                || declaredType.getTypeArguments().size() != 1) {
+            return null;
+        }
+        TypeMirror elementType = declaredType.getTypeArguments().get(0);
+        if (elementType instanceof WildcardType) {
+            elementType = ((WildcardType) elementType).getExtendsBound();
+        } else if (elementType instanceof TypeVariable) {
+            elementType = ((TypeVariable) elementType).getUpperBound();
+        }
+        if (elementType instanceof DeclaredType) {
+            // Raw type for generic event classes, the same as the event type found using reflection
+            return processingEnv.getTypeUtils().erasure(elementType);
+        }
+        return null;
+    }
+
     private TypeMirror getParamTypeMirror(VariableElement param, Messager messager) {
         TypeMirror typeMirror = param.asType();
         // Check for generic type
@@ -283,28 +367,47 @@ public class EventBusAnnotationProcessor extends AbstractProcessor {
     private void writeCreateSubscriberMethods(BufferedWriter writer, List<ExecutableElement> methods,
                                               String callPrefix, String myPackage) throws IOException {
         for (ExecutableElement method : methods) {
-            List<? extends VariableElement> parameters = method.getParameters();
-            TypeMirror paramType = getParamTypeMirror(parameters.get(0), null);
+            TypeMirror paramType = getEventTypeMirror(method, null);
             TypeElement paramElement = (TypeElement) processingEnv.getTypeUtils().asElement(paramType);
+            Subscribe subscribe = method.getAnnotation(Subscribe.class);
+            boolean batch = subscribe.maxBatchSize() > 0;
             String methodName = method.getSimpleName().toString();
-            String eventClass = getClassString(paramElement, myPackage) + ".class";
+            String eventClassName = getClassString(paramElement, myPackage);
+            String eventClass = eventClassName + ".class";
+            String subscriberClassName = getClassString((TypeElement) method.getEnclosingElement(), myPackage);
+            String invoker = "new " + INVOKER_CLASS + "(" + invokerCalls.size() + ")";
+            String parameterClassName = batch ? "java.util.List" : eventClassName;
+            String eventArgument = parameterClassName.equals("Object") ? "event" :
+                    "(" + parameterClassName + ") event";
+            invokerCalls.add("((" + subscriberClassName + ") subscriber)." + methodName + "(" + eventArgument + ");");
 
-            Subscribe subscribe = method.getAnnotation(Subscribe.class);
             List<String> parts = new ArrayList<>();
             parts.add(callPrefix + "(\"" + methodName + "\",");
             String lineEnd = "),";
-            if (subscribe.priority() == 0 && !subscribe.sticky()) {
+            boolean deliveryOptions = subscribe.conflate() || batch || subscribe.debounceMillis() != 0 ||
+                    subscribe.throttleMillis() != 0;
+            if (subscribe.priority() == 0 && !subscribe.sticky() && !deliveryOptions) {
                 if (subscribe.threadMode() == ThreadMode.POSTING) {
-                    parts.add(eventClass + lineEnd);
+                    parts.add(eventClass + ",");
+                    parts.add(invoker + lineEnd);
                 } else {
                     parts.add(eventClass + ",");
-                    parts.add("ThreadMode." + subscribe.threadMode().name() + lineEnd);
+                    parts.add("ThreadMode." + subscribe.threadMode().name() + ",");
+                    parts.add(invoker + lineEnd);
                 }
             } else {
                 parts.add(eventClass + ",");
                 parts.add("ThreadMode." + subscribe.threadMode().name() + ",");
                 parts.add(subscribe.priority() + ",");
-                parts.add(subscribe.sticky() + lineEnd);
+                parts.add(subscribe.sticky() + ",");
+                if (deliveryOptions) {
+                    parts.add(subscribe.conflate() + ",");
+                    parts.add(subscribe.maxBatchSize() + ",");
+                    parts.add(subscribe.batchLingerMillis() + ",");
+                    parts.add(subscribe.debounceMillis() + ",");
+                    parts.add(subscribe.throttleMillis() + ",");
+                }
+                parts.add(invoker + lineEnd);
             }
             writeLine(writer, 3, parts.toArray(new String[parts.size()]));
 
@@ -332,6 +435,7 @@ public class EventBusAnnotationProcessor extends AbstractProcessor {
             writer.write("import org.greenrobot.eventbus.meta.SubscriberMethodInfo;\n");
             writer.write("import org.greenrobot.eventbus.meta.SubscriberInfo;\n");
             writer.write("import org.greenrobot.eventbus.meta.SubscriberInfoIndex;\n\n");
+            writer.write("import org.greenrobot.eventbus.SubscriberInvoker;\n");
             writer.write("import org.greenrobot.eventbus.ThreadMode;\n\n");
             writer.write("import java.util.HashMap;\n");
             writer.write("import java.util.Map;\n\n");
@@ -354,6 +458,7 @@ public class EventBusAnnotationProcessor extends AbstractProcessor {
             writer.write("            return null;\n");
             writer.write("        }\n");
             writer.write("    }\n");
+            writeInvokerClass(writer);
             writer.write("}\n");
         } catch (IOException e) {
             throw new RuntimeException("Could not write source for " + index, e);
@@ -368,6 +473,62 @@ public class EventBusAnnotationProcessor extends AbstractProcessor {
         }
     }
 
+    /**
+     * Calls subscriber methods without reflection; a single class for all methods to keep the class count low. The
+     * switch is split into methods of {@link #INVOKER_CALLS_PER_METHOD} calls each.
+     */
+    private void writeInvokerClass(BufferedWriter writer) throws IOException {
+        writer.write("\n");
+        writer.write("    @SuppressWarnings({\"unchecked\", \"rawtypes\"})\n");
+        writer.write("    private static final class " + INVOKER_CLASS + " implements SubscriberInvoker {\n");
+        writer.write("        private final int id;\n\n");
+        writer.write("        " + INVOKER_CLASS + "(int id) {\n");
+        writer.write("            this.id = id;\n");
+        writer.write("        }\n\n");
+        writer.write("        @Override\n");
+        writer.write("        public void invoke(Object subscriber, Object event) throws Throwable {\n");
+        int chunks = (invokerCalls.size() + INVOKER_CALLS_PER_METHOD - 1) / INVOKER_CALLS_PER_METHOD;
+        if (chunks <= 1) {
+            writeInvokerSwitch(writer, 0, invokerCalls.size());
+        } else {
+            writer.write("            switch (id / " + INVOKER_CALLS_PER_METHOD + ") {\n");
+            for (int chunk = 0; chunk < chunks; chunk++) {
+                writer.write("                case " + chunk + ":\n");
+                writer.write("                    invoke" + chunk + "(subscriber, event);\n");
+                writer.write("                    break;\n");
+            }
+            writeInvokerSwitchDefault(writer);
+        }
+        writer.write("        }\n");
+        if (chunks > 1) {
+            for (int chunk = 0; chunk < chunks; chunk++) {
+                writer.write("\n");
+                writer.write("        private void invoke" + chunk +
+                        "(Object subscriber, Object event) throws Throwable {\n");
+                int start = chunk * INVOKER_CALLS_PER_METHOD;
+                writeInvokerSwitch(writer, start, Math.min(start + INVOKER_CALLS_PER_METHOD, invokerCalls.size()));
+                writer.write("        }\n");
+            }
+        }
+        writer.write("    }\n");
+    }
+
+    private void writeInvokerSwitch(BufferedWriter writer, int start, int end) throws IOException {
+        writer.write("            switch (id) {\n");
+        for (int i = start; i < end; i++) {
+            writer.write("                case " + i + ":\n");
+            writer.write("                    " + invokerCalls.get(i) + "\n");
+            writer.write("                    break;\n");
+        }
+        writeInvokerSwitchDefault(writer);
+    }
+
+    private void writeInvokerSwitchDefault(BufferedWriter writer) throws IOException {
+        writer.write("                default:\n");
+        writer.write("                    throw new IllegalStateException(\"Unknown subscriber method ID: \" + id);\n");
+        writer.write("            }\n");
+    }
+
     private void writeIndexLines(BufferedWriter writer, String myPackage) throws IOException {
         for (TypeElement subscriberTypeElement : methodsByClass.keySet()) {
             if (classesToSkip.contains(subscriberTypeElement)) {
@@ -0,0 +1,177 @@
+/*
+ * Copyright (C) 2012-2020 Markus Junginger, greenrobot (http://greenrobot.org)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.greenrobot.eventbus;
+
+import org.junit.Assume;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.lang.reflect.Method;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Makes sure posting to POSTING subscribers does not allocate once warmed up. Uses the allocated bytes per thread
+ * provided by HotSpot's ThreadMXBean; skipped if those are not available.
+ */
+public class EventBusAllocationTest extends AbstractEventBusTest {
+
+    private static final int COUNT = 100000;
+    /** Generous allowance for the measurement itself (e.g. boxing and varargs of the reflective calls). */
+    private static final long MAX_BYTES = 1024;
+
+    private ThreadMXBean threadMXBean;
+    private Method getThreadAllocatedBytes;
+
+    @Before
+    public void setUpAllocationMeasurement() {
+        boolean supported = false;
+        try {
+            // Inside the try: java.lang.management is not available everywhere (e.g. on Android)
+            threadMXBean = ManagementFactory.getThreadMXBean();
+            Class<?> hotSpotBean = Class.forName("com.sun.management.ThreadMXBean");
+            if (hotSpotBean.isInstance(threadMXBean)) {
+                getThreadAllocatedBytes = hotSpotBean.getMethod("getThreadAllocatedBytes", long.class);
+                Method isSupported = hotSpotBean.getMethod("isThreadAllocatedMemorySupported");
+                supported = (Boolean) isSupported.invoke(threadMXBean);
+                if (supported) {
+                    hotSpotBean.getMethod("setThreadAllocatedMemoryEnabled", boolean.class).invoke(threadMXBean, true);
+                }
+            }
+        } catch (Throwable th) {
+            Assume.assumeNoException(th);
+        }
+        Assume.assumeTrue(supported);
+    }
+
+    @Test
+    public void testPostDoesNotAllocate() {
+        PostingSubscriber subscriber = new PostingSubscriber();
+        eventBus.register(subscriber);
+        final String event = "Hello";
+        Runnable posting = new Runnable() {
+            @Override
+            public void run() {
+                for (int i = 0; i < COUNT; i++) {
+                    eventBus.post(event);
+                }
+            }
+        };
+        assertNoAllocation(posting);
+        assertEquals(2 * COUNT, subscriber.count);
+    }
+
+    @Test
+    public void testPostWithInheritanceDoesNotAllocate() {
+        PostingSubscriber subscriber = new PostingSubscriber();
+        eventBus.register(subscriber);
+        eventBus.register(new ObjectSubscriber());
+        final String event = "Hello";
+        Runnable posting = new Runnable() {
+            @Override
+            public void run() {
+                for (int i = 0; i < COUNT; i++) {
+                    eventBus.post(event);
+                }
+            }
+        };
+        assertNoAllocation(posting);
+        assertEquals(2 * COUNT, subscriber.count);
+    }
+
+    @Test
+    public void testPostAlternatingEventClassesDoesNotAllocate() {
+        PostingSubscriber subscriber = new PostingSubscriber();
+        eventBus.register(subscriber);
+        final String event = "Hello";
+        final Integer otherEvent = 42;
+        Runnable posting = new Runnable() {
+            @Override
+            public void run() {
+                for (int i = 0; i < COUNT; i++) {
+                    eventBus.post(event);
+                    eventBus.post(otherEvent);
+                }
+            }
+        };
+        assertNoAllocation(posting);
+        assertEquals(4 * COUNT, subscriber.count);
+    }
+
+    @Test
+    public void testPostWithPooledPostingStateDoesNotAllocate() {
+        eventBus = EventBus.builder().pooledPostingState(true).build();
+        testPostDoesNotAllocate();
+    }
+
+    @Test
+    public void testPostWithoutSubscriberDoesNotAllocate() {
+        eventBus = EventBus.builder().logNoSubscriberMessages(false).sendNoSubscriberEvent(false).build();
+        final String event = "Hello";
+        Runnable posting = new Runnable() {
+            @Override
+            public void run() {
+                for (int i = 0; i < COUNT; i++) {
+                    eventBus.post(event);
+                }
+            }
+        };
+        assertNoAllocation(posting);
+    }
+
+    /** Runs the given posting code twice: first for warmup and then to measure. */
+    private void assertNoAllocation(Runnable posting) {
+        posting.run();
+        long id = Thread.currentThread().getId();
+        long before = allocatedBytes(id);
+        posting.run();
+        long allocated = allocatedBytes(id) - before;
+        log("Allocated bytes for " + COUNT + " posts: " + allocated);
+        assertTrue("Posting allocated " + allocated + " bytes", allocated < MAX_BYTES);
+    }
+
+    private long allocatedBytes(long threadId) {
+        try {
+            return (Long) getThreadAllocatedBytes.invoke(threadMXBean, threadId);
+        } catch (Exception e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    public static class PostingSubscriber {
+        int count;
+
+        @Subscribe
+        public void onEvent(String event) {
+            count++;
+        }
+
+        @Subscribe
+        public void onEvent(Integer event) {
+            count++;
+        }
+    }
+
+    public static class ObjectSubscriber {
+        @Subscribe
+        public void onEvent(Object event) {
+        }
+    }
+
+}
@@ -0,0 +1,120 @@
+/*
+ * Copyright (C) 2012-2020 Markus Junginger, greenrobot (http://greenrobot.org)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.greenrobot.eventbus;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class EventBusBackgroundLanesTest extends AbstractEventBusTest {
+
+    private static final int SUBSCRIBERS = 16;
+    private static final int COUNT = 1000;
+
+    @Test
+    public void testOrderPerSubscriber() {
+        eventBus = EventBus.builder().backgroundLanes(4).build();
+        assertOrderPerSubscriber();
+    }
+
+    @Test
+    public void testOrderPerSubscriberByEventType() {
+        eventBus = EventBus.builder().backgroundLanes(4).backgroundLanesByEventType(true).build();
+        assertOrderPerSubscriber();
+    }
+
+    private void assertOrderPerSubscriber() {
+        List<OrderSubscriber> subscribers = new ArrayList<>();
+        for (int i = 0; i < SUBSCRIBERS; i++) {
+            OrderSubscriber subscriber = new OrderSubscriber();
+            eventBus.register(subscriber);
+            subscribers.add(subscriber);
+        }
+        for (int i = 0; i < COUNT; i++) {
+            eventBus.post(i);
+        }
+        waitForEventCount(SUBSCRIBERS * COUNT, 5000);
+        for (OrderSubscriber subscriber : subscribers) {
+            assertEquals(COUNT, subscriber.received.size());
+            for (int i = 0; i < COUNT; i++) {
+                assertEquals(i, subscriber.received.get(i).intValue());
+            }
+        }
+    }
+
+    @Test
+    public void testSlowSubscriberDoesNotBlockOtherLanes() throws InterruptedException {
+        eventBus = EventBus.builder().backgroundLanes(SUBSCRIBERS).build();
+        BlockingSubscriber blocking = new BlockingSubscriber();
+        eventBus.register(blocking);
+        List<OrderSubscriber> subscribers = new ArrayList<>();
+        for (int i = 0; i < SUBSCRIBERS; i++) {
+            OrderSubscriber subscriber = new OrderSubscriber();
+            eventBus.register(subscriber);
+            subscribers.add(subscriber);
+        }
+        eventBus.post(42);
+        assertTrue(blocking.started.await(5, TimeUnit.SECONDS));
+
+        // With this many lanes, at least one subscriber is in another lane than the blocking one
+        long deadline = System.currentTimeMillis() + 5000;
+        int delivered = 0;
+        while (delivered == 0 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(1);
+            for (OrderSubscriber subscriber : subscribers) {
+                delivered += subscriber.received.size();
+            }
+        }
+        assertTrue(delivered > 0);
+        blocking.release.countDown();
+        waitForEventCount(SUBSCRIBERS, 5000);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testNoLanes() {
+        EventBus.builder().backgroundLanes(0);
+    }
+
+    public class OrderSubscriber {
+        final List<Integer> received = new ArrayList<>();
+
+        @Subscribe(threadMode = ThreadMode.BACKGROUND)
+        public void onEvent(Integer event) {
+            synchronized (received) {
+                received.add(event);
+            }
+            trackEvent(event);
+        }
+    }
+
+    public static class BlockingSubscriber {
+        final CountDownLatch started = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+
+        @Subscribe(threadMode = ThreadMode.BACKGROUND)
+        public void onEvent(Integer event) throws InterruptedException {
+            started.countDown();
+            release.await(5, TimeUnit.SECONDS);
+        }
+    }
+
+}
@@ -17,6 +17,9 @@ package org.greenrobot.eventbus;
 
 import org.junit.Test;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
@@ -192,6 +195,75 @@ public class EventBusBasicTest extends AbstractEventBusTest {
         assertEquals(10, reposter.lastEvent);
     }
 
+    @Test
+    public void testPostAll() {
+        eventBus.register(this);
+        eventBus.postAll("Hello", 42, "World", 43);
+        assertEquals(2, countStringEvent);
+        assertEquals("World", lastStringEvent);
+        assertEquals(2, countIntEvent);
+        assertEquals(43, lastIntEvent);
+
+        eventBus.postAll(Arrays.asList("A", "B", "C"));
+        assertEquals(5, countStringEvent);
+        assertEquals("C", lastStringEvent);
+    }
+
+    @Test
+    public void testPostAllInEventHandler() {
+        RepostInteger reposter = new RepostInteger();
+        eventBus.register(reposter);
+        eventBus.register(this);
+        // Reposted events are delivered before the next event of the batch, just like with post()
+        eventBus.postAll(1, "Hello");
+        assertEquals(10, countIntEvent);
+        assertEquals(10, reposter.countEvent);
+        assertEquals(1, countStringEvent);
+    }
+
+    @Test
+    public void testPostAllAfterRegisterInEventHandler() {
+        final StringEventSubscriber stringSubscriber = new StringEventSubscriber();
+        Object registerer = new Object() {
+            @Subscribe
+            public void onEvent(Integer event) {
+                eventBus.register(stringSubscriber);
+            }
+        };
+        eventBus.register(registerer);
+        eventBus.postAll("Before", 1, "After");
+        assertEquals("After", stringSubscriber.lastStringEvent);
+    }
+
+    @Test
+    public void testPooledPostingState() throws InterruptedException {
+        eventBus = EventBus.builder().pooledPostingState(true).build();
+        testPostInEventHandler();
+
+        // Many short-lived threads, each posting once
+        eventBus.register(new Object() {
+            @Subscribe
+            public void onEvent(String event) {
+                trackEvent(event);
+            }
+        });
+        List<Thread> threads = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            Thread thread = new Thread() {
+                @Override
+                public void run() {
+                    eventBus.post("Hello");
+                }
+            };
+            thread.start();
+            threads.add(thread);
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        assertEventCount(100);
+    }
+
     @Test
     public void testHasSubscriberForEvent() {
         assertFalse(eventBus.hasSubscriberForEvent(String.class));
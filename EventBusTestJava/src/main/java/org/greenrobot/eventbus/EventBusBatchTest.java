@@ -0,0 +1,268 @@
+/*
+ * Copyright (C) 2012-2020 Markus Junginger, greenrobot (http://greenrobot.org)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.greenrobot.eventbus;
+
+import org.greenrobot.eventbus.meta.SimpleSubscriberInfo;
+import org.greenrobot.eventbus.meta.SubscriberInfo;
+import org.greenrobot.eventbus.meta.SubscriberInfoIndex;
+import org.greenrobot.eventbus.meta.SubscriberMethodInfo;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class EventBusBatchTest extends AbstractEventBusTest {
+
+    @Test
+    public void testBatchesWhileBusy() throws InterruptedException {
+        BackgroundBatchSubscriber subscriber = new BackgroundBatchSubscriber();
+        assertBatchesWhileBusy(subscriber.delegate);
+    }
+
+    @Test
+    public void testBatchesWhileBusyAsyncOrdered() throws InterruptedException {
+        AsyncOrderedBatchSubscriber subscriber = new AsyncOrderedBatchSubscriber();
+        assertBatchesWhileBusy(subscriber.delegate);
+    }
+
+    @Test
+    public void testBatchesWithIndex() throws InterruptedException {
+        eventBus = EventBus.builder().addIndex(new EventBusJavaTestsIndex()).build();
+        BackgroundBatchSubscriber subscriber = new BackgroundBatchSubscriber();
+        assertBatchesWhileBusy(subscriber.delegate);
+    }
+
+    private void assertBatchesWhileBusy(BatchDelegate delegate) throws InterruptedException {
+        eventBus.register(delegate.subscriber);
+        eventBus.post(0);
+        assertTrue(delegate.started.await(5, TimeUnit.SECONDS));
+        for (int i = 1; i <= 25; i++) {
+            eventBus.post(i);
+        }
+        delegate.release.countDown();
+        delegate.awaitEvents(26);
+
+        List<List<Integer>> batches = delegate.batches;
+        assertEquals(4, batches.size());
+        assertEquals(Collections.singletonList(0), batches.get(0));
+        assertEquals(10, batches.get(1).size());
+        assertEquals(10, batches.get(2).size());
+        assertEquals(5, batches.get(3).size());
+        int expected = 0;
+        for (List<Integer> batch : batches) {
+            for (Integer event : batch) {
+                assertEquals(expected++, event.intValue());
+            }
+        }
+    }
+
+    @Test
+    public void testQueueCapacity() throws InterruptedException {
+        eventBus = EventBus.builder().queueCapacity(5, OverflowPolicy.DROP_NEWEST).build();
+        BatchDelegate delegate = postPastCapacityWhileBusy();
+        assertEquals(15, eventBus.getOverflowCount());
+        assertEquals(Arrays.asList(0, 1, 2, 3, 4, 5), delegate.getEvents());
+    }
+
+    @Test
+    public void testQueueCapacityDropOldest() throws InterruptedException {
+        eventBus = EventBus.builder().queueCapacity(5, OverflowPolicy.DROP_OLDEST).build();
+        BatchDelegate delegate = postPastCapacityWhileBusy();
+        assertEquals(15, eventBus.getOverflowCount());
+        assertEquals(Arrays.asList(0, 16, 17, 18, 19, 20), delegate.getEvents());
+    }
+
+    private BatchDelegate postPastCapacityWhileBusy() throws InterruptedException {
+        BackgroundBatchSubscriber subscriber = new BackgroundBatchSubscriber();
+        BatchDelegate delegate = subscriber.delegate;
+        eventBus.register(subscriber);
+        eventBus.post(0);
+        assertTrue(delegate.started.await(5, TimeUnit.SECONDS));
+        for (int i = 1; i <= 20; i++) {
+            eventBus.post(i);
+        }
+        delegate.release.countDown();
+        delegate.awaitEvents(6);
+        // Give events beyond the capacity a chance to show up wrongly
+        Thread.sleep(20);
+        return delegate;
+    }
+
+    @Test
+    public void testBatchAsync() throws InterruptedException {
+        AsyncBatchSubscriber subscriber = new AsyncBatchSubscriber();
+        eventBus.register(subscriber);
+        eventBus.post("Hello");
+        waitForEventCount(1, 1000);
+        assertEquals(Collections.singletonList("Hello"), lastEvent);
+    }
+
+    @Test
+    public void testLinger() throws InterruptedException {
+        LingeringBatchSubscriber subscriber = new LingeringBatchSubscriber();
+        eventBus.register(subscriber);
+        for (int i = 0; i < 5; i++) {
+            eventBus.post(i);
+        }
+        waitForEventCount(1, 1000);
+        assertEquals(5, ((List<?>) lastEvent).size());
+
+        eventBus.post(5);
+        waitForEventCount(2, 1000);
+        assertEquals(Collections.singletonList(5), lastEvent);
+    }
+
+    @Test
+    public void testFullBatchDoesNotLinger() throws InterruptedException {
+        FullBatchSubscriber subscriber = new FullBatchSubscriber();
+        eventBus.register(subscriber);
+        eventBus.post("1");
+        eventBus.post("2");
+        eventBus.post("3");
+        // The linger time is 10 seconds
+        waitForEventCount(1, 1000);
+        assertEquals(3, ((List<?>) lastEvent).size());
+    }
+
+    @Test
+    public void testBatchDoesNotHideSingleEventMethodOfSuperclass() throws InterruptedException {
+        eventBus.register(new BatchAndSingleEventSubscriber());
+        eventBus.post("Hello");
+        waitForEventCount(2, 1000);
+        // Give a wrongly duplicated delivery a chance to show up
+        Thread.sleep(20);
+        assertEquals(2, eventCount.intValue());
+    }
+
+    @Test
+    public void testPostingNotSupported() {
+        SubscriberInfoIndex index = new SubscriberInfoIndex() {
+            @Override
+            public SubscriberInfo getSubscriberInfo(Class<?> subscriberClass) {
+                SubscriberMethodInfo[] methodInfos = {
+                        new SubscriberMethodInfo("onEvents", Integer.class, ThreadMode.POSTING, 0, false, false, 10, 0,
+                                0, 0, null)
+                };
+                return new SimpleSubscriberInfo(BackgroundBatchSubscriber.class, false, methodInfos);
+            }
+        };
+        eventBus = EventBus.builder().addIndex(index).build();
+        try {
+            eventBus.register(new BackgroundBatchSubscriber());
+            fail("Should have thrown");
+        } catch (EventBusException e) {
+            // Expected
+        }
+    }
+
+    static class BatchDelegate {
+        final Object subscriber;
+        final CountDownLatch started = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        final List<List<Integer>> batches = Collections.synchronizedList(new ArrayList<List<Integer>>());
+        volatile int eventCount;
+
+        BatchDelegate(Object subscriber) {
+            this.subscriber = subscriber;
+        }
+
+        void onEvents(List<Integer> events) throws InterruptedException {
+            batches.add(events);
+            eventCount += events.size();
+            started.countDown();
+            release.await(5, TimeUnit.SECONDS);
+        }
+
+        void awaitEvents(int count) throws InterruptedException {
+            long deadline = System.currentTimeMillis() + 5000;
+            while (eventCount < count && System.currentTimeMillis() < deadline) {
+                Thread.sleep(1);
+            }
+        }
+
+        List<Integer> getEvents() {
+            List<Integer> events = new ArrayList<>();
+            synchronized (batches) {
+                for (List<Integer> batch : batches) {
+                    events.addAll(batch);
+                }
+            }
+            return events;
+        }
+    }
+
+    public static class BackgroundBatchSubscriber {
+        final BatchDelegate delegate = new BatchDelegate(this);
+
+        @Subscribe(threadMode = ThreadMode.BACKGROUND, maxBatchSize = 10)
+        public void onEvents(List<Integer> events) throws InterruptedException {
+            delegate.onEvents(events);
+        }
+    }
+
+    public static class AsyncOrderedBatchSubscriber {
+        final BatchDelegate delegate = new BatchDelegate(this);
+
+        @Subscribe(threadMode = ThreadMode.ASYNC_ORDERED, maxBatchSize = 10)
+        public void onEvents(List<Integer> events) throws InterruptedException {
+            delegate.onEvents(events);
+        }
+    }
+
+    public class AsyncBatchSubscriber {
+        @Subscribe(threadMode = ThreadMode.ASYNC, maxBatchSize = 10)
+        public void onEvents(List<? extends CharSequence> events) {
+            trackEvent(events);
+        }
+    }
+
+    public class LingeringBatchSubscriber {
+        @Subscribe(threadMode = ThreadMode.BACKGROUND, maxBatchSize = 100, batchLingerMillis = 100)
+        public void onEvents(List<Integer> events) {
+            trackEvent(events);
+        }
+    }
+
+    public class SingleEventSubscriber {
+        @Subscribe
+        public void onEvent(String event) {
+            trackEvent(event);
+        }
+    }
+
+    public class BatchAndSingleEventSubscriber extends SingleEventSubscriber {
+        @Subscribe(threadMode = ThreadMode.BACKGROUND, maxBatchSize = 10)
+        public void onEvent(List<String> events) {
+            trackEvent(events);
+        }
+    }
+
+    public class FullBatchSubscriber {
+        @Subscribe(threadMode = ThreadMode.BACKGROUND, maxBatchSize = 3, batchLingerMillis = 10000)
+        public void onEvents(List<String> events) {
+            trackEvent(events);
+        }
+    }
+
+}
@@ -16,8 +16,17 @@
 package org.greenrobot.eventbus;
 
 import org.junit.Assert;
+import org.junit.Assume;
 import org.junit.Test;
 
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 
 /**
@@ -55,6 +64,98 @@ public class EventBusBuilderTest extends AbstractEventBusTest {
         assertEventCount(0);
     }
 
+    @Test
+    public void testWaitStrategy() throws InterruptedException {
+        for (WaitStrategy waitStrategy : WaitStrategy.values()) {
+            eventCount.set(0);
+            eventBus = EventBus.builder().waitStrategy(waitStrategy).build();
+            eventBus.register(new BackgroundSubscriber());
+            for (int i = 0; i < 100; i++) {
+                eventBus.post("Foo");
+                if (i % 10 == 0) {
+                    // Let the background thread wait
+                    Thread.sleep(1);
+                }
+            }
+            waitForEventCount(100, 1000);
+        }
+    }
+
+    @Test
+    public void testUseVirtualThreads() throws Exception {
+        Assume.assumeTrue(VirtualThreads.isAvailable());
+        eventBus = EventBus.builder().useVirtualThreads().build();
+        eventBus.register(new AsyncSubscriber());
+        eventBus.post("Foo");
+        waitForEventCount(1, 1000);
+        Assert.assertEquals(Boolean.TRUE, Thread.class.getMethod("isVirtual").invoke(lastThread));
+    }
+
+    @Test
+    public void testUseVirtualThreadsNotAvailable() {
+        Assume.assumeFalse(VirtualThreads.isAvailable());
+        EventBusBuilder builder = EventBus.builder();
+        Assert.assertSame(builder.asyncExecutorService, builder.useVirtualThreads().asyncExecutorService);
+        Assert.assertNull(builder.backgroundExecutorService);
+        eventBus = builder.build();
+        eventBus.register(new AsyncSubscriber());
+        eventBus.post("Foo");
+        waitForEventCount(1, 1000);
+    }
+
+    @Test
+    public void testSeparateExecutors() throws InterruptedException {
+        ExecutorService asyncExecutor = new ThreadPoolExecutor(1, 1, 0, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<Runnable>());
+        try {
+            eventBus = EventBus.builder().asyncExecutorService(asyncExecutor).build();
+            BlockingAsyncSubscriber blockingSubscriber = new BlockingAsyncSubscriber();
+            eventBus.register(blockingSubscriber);
+            eventBus.register(new BackgroundSubscriber());
+            eventBus.post(1);
+            eventBus.post(2);
+            assertTrue(blockingSubscriber.started.await(5, TimeUnit.SECONDS));
+
+            // The async executor is busy, but background events are still delivered
+            eventBus.post("Foo");
+            waitForEventCount(1, 1000);
+            Assert.assertEquals(1, eventBus.getActiveThreadCount(ThreadMode.ASYNC));
+            Assert.assertEquals(1, eventBus.getQueuedTaskCount(ThreadMode.ASYNC));
+            Assert.assertEquals(0, eventBus.getQueuedTaskCount(ThreadMode.BACKGROUND));
+            Assert.assertEquals(-1, eventBus.getActiveThreadCount(ThreadMode.POSTING));
+            blockingSubscriber.release.countDown();
+        } finally {
+            asyncExecutor.shutdown();
+        }
+    }
+
+    @Test
+    public void testDefaultAsyncExecutorIsBounded() {
+        eventBus = EventBus.builder().build();
+        ThreadPoolExecutor executor = (ThreadPoolExecutor) eventBus.getExecutorService(ThreadMode.ASYNC);
+        // Unlike the cached thread pool of earlier versions, further events wait in the queue instead of new threads
+        Assert.assertEquals(executor.getCorePoolSize(), executor.getMaximumPoolSize());
+        assertTrue(executor.getMaximumPoolSize() >= 4);
+        Assert.assertEquals(Integer.MAX_VALUE, executor.getQueue().remainingCapacity());
+        Assert.assertSame(executor, EventBus.builder().build().getExecutorService(ThreadMode.ASYNC));
+    }
+
+    @Test
+    public void testExecutorService() {
+        ExecutorService executor = Executors.newCachedThreadPool();
+        try {
+            eventBus = EventBus.builder().executorService(executor).build();
+            eventBus.register(new AsyncSubscriber());
+            eventBus.register(new BackgroundSubscriber());
+            eventBus.post("Foo");
+            waitForEventCount(2, 1000);
+            Assert.assertSame(executor, eventBus.getExecutorService(ThreadMode.BACKGROUND));
+            Assert.assertSame(executor, eventBus.getExecutorService(ThreadMode.ASYNC));
+        } finally {
+            executor.shutdown();
+        }
+    }
+
     @Test
     public void testInstallDefaultEventBus() {
         EventBusBuilder builder = EventBus.builder();
@@ -92,6 +193,31 @@ public class EventBusBuilderTest extends AbstractEventBusTest {
         }
     }
 
+    public class BackgroundSubscriber {
+        @Subscribe(threadMode = ThreadMode.BACKGROUND)
+        public void onEvent(String event) {
+            trackEvent(event);
+        }
+    }
+
+    public class AsyncSubscriber {
+        @Subscribe(threadMode = ThreadMode.ASYNC)
+        public void onEvent(String event) {
+            trackEvent(event);
+        }
+    }
+
+    public static class BlockingAsyncSubscriber {
+        final CountDownLatch started = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+
+        @Subscribe(threadMode = ThreadMode.ASYNC)
+        public void onEvent(Integer event) throws InterruptedException {
+            started.countDown();
+            release.await(5, TimeUnit.SECONDS);
+        }
+    }
+
     public class ThrowingSubscriber {
         @Subscribe
         public void onEvent(Object event) {
@@ -50,6 +50,15 @@ public class EventBusCancelEventDeliveryTest extends AbstractEventBusTest {
         assertEquals(2, eventCount.intValue());
     }
 
+    @Test
+    public void testCancelPostAll() {
+        eventBus.register(new Subscriber(0, false));
+        eventBus.register(new Subscriber(1, true));
+        eventBus.postAll("1", "2", "3");
+        // Canceling affects the current event only
+        assertEquals(3, eventCount.intValue());
+    }
+
     @Test
     public void testCancelOutsideEventHandler() {
         try {
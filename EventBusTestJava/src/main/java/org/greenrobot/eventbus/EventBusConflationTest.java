@@ -0,0 +1,147 @@
+/*
+ * Copyright (C) 2012-2020 Markus Junginger, greenrobot (http://greenrobot.org)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.greenrobot.eventbus;
+
+import org.greenrobot.eventbus.meta.SimpleSubscriberInfo;
+import org.greenrobot.eventbus.meta.SubscriberInfo;
+import org.greenrobot.eventbus.meta.SubscriberInfoIndex;
+import org.greenrobot.eventbus.meta.SubscriberMethodInfo;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class EventBusConflationTest extends AbstractEventBusTest {
+
+    private static final int COUNT = 1000;
+
+    @Test
+    public void testConflateBackground() throws InterruptedException {
+        BackgroundSubscriber subscriber = new BackgroundSubscriber();
+        assertConflated(subscriber, subscriber.delegate);
+    }
+
+    @Test
+    public void testConflateAsyncOrdered() throws InterruptedException {
+        AsyncOrderedSubscriber subscriber = new AsyncOrderedSubscriber();
+        assertConflated(subscriber, subscriber.delegate);
+    }
+
+    @Test
+    public void testConflateWithIndex() throws InterruptedException {
+        eventBus = EventBus.builder().addIndex(new EventBusJavaTestsIndex()).build();
+        BackgroundSubscriber subscriber = new BackgroundSubscriber();
+        assertConflated(subscriber, subscriber.delegate);
+    }
+
+    @Test
+    public void testNoConflationWithoutBacklog() throws InterruptedException {
+        BackgroundSubscriber subscriber = new BackgroundSubscriber();
+        subscriber.delegate.release.countDown();
+        eventBus.register(subscriber);
+        for (int i = 1; i <= 3; i++) {
+            eventBus.post(i);
+            subscriber.delegate.awaitEvents(i);
+        }
+        assertEquals(Arrays.<Object>asList(1, 2, 3), subscriber.delegate.received);
+    }
+
+    @Test
+    public void testConflatePostingNotSupported() {
+        SubscriberInfoIndex index = new SubscriberInfoIndex() {
+            @Override
+            public SubscriberInfo getSubscriberInfo(Class<?> subscriberClass) {
+                SubscriberMethodInfo[] methodInfos = {
+                        new SubscriberMethodInfo("onEvent", Integer.class, ThreadMode.POSTING, 0, false, true, 0, 0,
+                                0, 0, null)
+                };
+                return new SimpleSubscriberInfo(BackgroundSubscriber.class, false, methodInfos);
+            }
+        };
+        eventBus = EventBus.builder().addIndex(index).build();
+        try {
+            eventBus.register(new BackgroundSubscriber());
+            fail("Should have thrown");
+        } catch (EventBusException e) {
+            // Expected
+        }
+    }
+
+    private void assertConflated(Object subscriber, BlockingDelegate delegate) throws InterruptedException {
+        eventBus.register(subscriber);
+        eventBus.post(0);
+        assertTrue(delegate.started.await(5, TimeUnit.SECONDS));
+        for (int i = 1; i <= COUNT; i++) {
+            eventBus.post(i);
+        }
+        delegate.release.countDown();
+        delegate.awaitEvents(2);
+        assertEquals(Arrays.<Object>asList(0, COUNT), delegate.received);
+
+        // The slot is free again
+        eventBus.post(-1);
+        delegate.awaitEvents(3);
+        assertEquals(Arrays.<Object>asList(0, COUNT, -1), delegate.received);
+    }
+
+    static class BlockingDelegate {
+        final CountDownLatch started = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        final List<Object> received = Collections.synchronizedList(new ArrayList<Object>());
+
+        void onEvent(Integer event) throws InterruptedException {
+            received.add(event);
+            started.countDown();
+            release.await(5, TimeUnit.SECONDS);
+        }
+
+        void awaitEvents(int count) throws InterruptedException {
+            long deadline = System.currentTimeMillis() + 5000;
+            while (received.size() < count && System.currentTimeMillis() < deadline) {
+                Thread.sleep(1);
+            }
+            // Give conflated events a chance to show up wrongly
+            Thread.sleep(20);
+        }
+    }
+
+    public static class BackgroundSubscriber {
+        final BlockingDelegate delegate = new BlockingDelegate();
+
+        @Subscribe(threadMode = ThreadMode.BACKGROUND, conflate = true)
+        public void onEvent(Integer event) throws InterruptedException {
+            delegate.onEvent(event);
+        }
+    }
+
+    public static class AsyncOrderedSubscriber {
+        final BlockingDelegate delegate = new BlockingDelegate();
+
+        @Subscribe(threadMode = ThreadMode.ASYNC_ORDERED, conflate = true)
+        public void onEvent(Integer event) throws InterruptedException {
+            delegate.onEvent(event);
+        }
+    }
+
+}
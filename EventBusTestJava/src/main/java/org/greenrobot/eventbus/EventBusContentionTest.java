@@ -0,0 +1,144 @@
+/*
+ * Copyright (C) 2012-2020 Markus Junginger, greenrobot (http://greenrobot.org)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.greenrobot.eventbus;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Measures posting throughput of many threads posting to POSTING subscribers, while other threads keep registering
+ * and unregistering subscribers. Posting threads should not contend with each other on a shared lock.
+ */
+public class EventBusContentionTest extends AbstractEventBusTest {
+
+    static final int COUNT = LONG_TESTS ? 1000000 : 20000;
+
+    final AtomicInteger countStringEvent = new AtomicInteger();
+
+    @Test
+    public void testPost01Thread() throws InterruptedException {
+        runPosterThreads(1, 0);
+    }
+
+    @Test
+    public void testPost04Threads() throws InterruptedException {
+        runPosterThreads(4, 0);
+    }
+
+    @Test
+    public void testPost32Threads() throws InterruptedException {
+        runPosterThreads(32, 0);
+    }
+
+    @Test
+    public void testPost32ThreadsWhileRegistering() throws InterruptedException {
+        runPosterThreads(32, 2);
+    }
+
+    private void runPosterThreads(int threadCount, int registeringThreadCount) throws InterruptedException {
+        eventBus.register(this);
+        int iterations = COUNT / threadCount;
+
+        CountDownLatch latch = new CountDownLatch(threadCount + 1);
+        List<PosterThread> threads = new ArrayList<>(threadCount);
+        for (int i = 0; i < threadCount; i++) {
+            PosterThread thread = new PosterThread(latch, iterations);
+            thread.start();
+            threads.add(thread);
+        }
+        List<RegisteringThread> registeringThreads = new ArrayList<>(registeringThreadCount);
+        for (int i = 0; i < registeringThreadCount; i++) {
+            RegisteringThread thread = new RegisteringThread();
+            thread.start();
+            registeringThreads.add(thread);
+        }
+
+        while (latch.getCount() != 1) {
+            // Let all other threads prepare and ensure this one is the last
+            Thread.sleep(1);
+        }
+        long start = System.nanoTime();
+        latch.countDown();
+        for (PosterThread thread : threads) {
+            thread.join();
+        }
+        long time = (System.nanoTime() - start) / 1000000;
+        for (RegisteringThread thread : registeringThreads) {
+            thread.running = false;
+            thread.join();
+        }
+
+        int expectedCount = threadCount * iterations;
+        log(threadCount + " threads (" + registeringThreadCount + " registering) posted " + expectedCount +
+                " events in " + time + "ms (" + (expectedCount * 1000L / Math.max(time, 1)) + " events/s)");
+        assertEquals(expectedCount, countStringEvent.get());
+    }
+
+    @Subscribe
+    public void onEvent(String event) {
+        countStringEvent.incrementAndGet();
+    }
+
+    class PosterThread extends Thread {
+        private final CountDownLatch startLatch;
+        private final int iterations;
+
+        PosterThread(CountDownLatch latch, int iterations) {
+            this.startLatch = latch;
+            this.iterations = iterations;
+        }
+
+        @Override
+        public void run() {
+            startLatch.countDown();
+            try {
+                startLatch.await();
+            } catch (InterruptedException e) {
+                log("Unexpected interrupt", e);
+            }
+
+            for (int i = 0; i < iterations; i++) {
+                eventBus.post("Hello");
+            }
+        }
+    }
+
+    class RegisteringThread extends Thread {
+        volatile boolean running = true;
+
+        @Override
+        public void run() {
+            Object subscriber = new OtherSubscriber();
+            while (running) {
+                eventBus.register(subscriber);
+                eventBus.unregister(subscriber);
+            }
+        }
+    }
+
+    public static class OtherSubscriber {
+        @Subscribe
+        public void onEvent(Integer event) {
+        }
+    }
+
+}
@@ -0,0 +1,155 @@
+/*
+ * Copyright (C) 2012-2020 Markus Junginger, greenrobot (http://greenrobot.org)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.greenrobot.eventbus;
+
+import org.junit.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertTrue;
+
+public class EventBusDelayedPostTest extends AbstractEventBusTest {
+
+    private volatile long lastEventNanos;
+
+    public EventBusDelayedPostTest() {
+        super(true);
+    }
+
+    @Test
+    public void testPostDelayed() {
+        eventBus.register(this);
+        long start = System.nanoTime();
+        ScheduledPost scheduledPost = eventBus.postDelayed("Hello", 100, TimeUnit.MILLISECONDS);
+        assertEventCount(0);
+        waitForEventCount(1, 2000);
+        assertEquals("Hello", lastEvent);
+        assertTrue(lastEventNanos - start >= TimeUnit.MILLISECONDS.toNanos(100));
+        assertNotSame(Thread.currentThread(), lastThread);
+        assertTrue(scheduledPost.isPosted());
+        assertFalse(scheduledPost.cancel());
+    }
+
+    @Test
+    public void testCancel() throws InterruptedException {
+        eventBus.register(this);
+        ScheduledPost scheduledPost = eventBus.postDelayed("Hello", 50, TimeUnit.MILLISECONDS);
+        eventBus.postDelayed("World", 100, TimeUnit.MILLISECONDS);
+        assertTrue(scheduledPost.cancel());
+        assertTrue(scheduledPost.isCanceled());
+        assertFalse(scheduledPost.cancel());
+        waitForEventCount(1, 2000);
+        Thread.sleep(100);
+        assertEventCount(1);
+        assertEquals("World", lastEvent);
+        assertFalse(scheduledPost.isPosted());
+    }
+
+    @Test
+    public void testPostAt() {
+        eventBus.register(this);
+        long start = System.nanoTime();
+        eventBus.postAt("Hello", System.currentTimeMillis() + 100);
+        waitForEventCount(1, 2000);
+        // Wall clock and nanoTime may disagree slightly
+        assertTrue(lastEventNanos - start >= TimeUnit.MILLISECONDS.toNanos(90));
+    }
+
+    @Test
+    public void testPostAtPast() {
+        eventBus.register(this);
+        eventBus.postAt("Hello", 0);
+        waitForEventCount(1, 1000);
+    }
+
+    @Test
+    public void testOrder() {
+        eventBus.register(this);
+        for (int i = 0; i < 50; i++) {
+            eventBus.postDelayed(i, (i % 5) * 30, TimeUnit.MILLISECONDS);
+        }
+        waitForEventCount(50, 3000);
+        for (int i = 0; i < 50; i++) {
+            // Ordered by delay, then by scheduling order
+            int expected = (i / 10) + (i % 10) * 5;
+            assertEquals(expected, eventsReceived.get(i));
+        }
+    }
+
+    @Test
+    public void testMultipleRounds() {
+        eventBus.register(this);
+        // Small wheel: a rotation takes 8 ms
+        HashedTimerWheel wheel = new HashedTimerWheel(eventBus, TimeUnit.MILLISECONDS.toNanos(1), 8);
+        long start = System.nanoTime();
+        wheel.schedule("Hello", TimeUnit.MILLISECONDS.toNanos(50));
+        wheel.schedule(42, TimeUnit.MILLISECONDS.toNanos(5));
+        waitForEventCount(2, 2000);
+        assertEquals("Hello", lastEvent);
+        assertTrue(lastEventNanos - start >= TimeUnit.MILLISECONDS.toNanos(50));
+    }
+
+    @Test
+    public void testSubscriberException() {
+        eventBus = EventBus.builder().throwSubscriberException(true).build();
+        eventBus.register(new ThrowingSubscriber());
+        eventBus.postDelayed(new IntTestEvent(42), 10, TimeUnit.MILLISECONDS);
+        eventBus.register(this);
+        eventBus.postDelayed("Hello", 20, TimeUnit.MILLISECONDS);
+        // The timer thread survives the exception
+        waitForEventCount(1, 2000);
+        assertEquals("Hello", lastEvent);
+    }
+
+    @Test
+    public void testTimerTaskError() {
+        eventBus.register(this);
+        HashedTimerWheel wheel = new HashedTimerWheel(eventBus, TimeUnit.MILLISECONDS.toNanos(1), 8);
+        wheel.schedule(new Runnable() {
+            @Override
+            public void run() {
+                throw new AssertionError("Expected");
+            }
+        }, TimeUnit.MILLISECONDS.toNanos(5));
+        wheel.schedule("Hello", TimeUnit.MILLISECONDS.toNanos(20));
+        // The timer thread survives the error
+        waitForEventCount(1, 2000);
+        assertEquals("Hello", lastEvent);
+    }
+
+    @Subscribe
+    public void onEvent(String event) {
+        lastEventNanos = System.nanoTime();
+        trackEvent(event);
+    }
+
+    @Subscribe
+    public void onEvent(Integer event) {
+        lastEventNanos = System.nanoTime();
+        trackEvent(event);
+    }
+
+    public static class ThrowingSubscriber {
+        @Subscribe
+        public void onEvent(IntTestEvent event) {
+            throw new RuntimeException("Test");
+        }
+    }
+
+}
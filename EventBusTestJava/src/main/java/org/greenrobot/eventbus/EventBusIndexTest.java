@@ -48,6 +48,43 @@ public class EventBusIndexTest {
         Assert.assertEquals("Yepp", value);
     }
 
+    /** With an invoker, the method is neither looked up nor called using reflection. */
+    @Test
+    public void testManualIndexWithInvoker() {
+        SubscriberInfoIndex index = new SubscriberInfoIndex() {
+
+            @Override
+            public SubscriberInfo getSubscriberInfo(Class<?> subscriberClass) {
+                SubscriberInvoker invoker = new SubscriberInvoker() {
+                    @Override
+                    public void invoke(Object subscriber, Object event) {
+                        ((EventBusIndexTest) subscriber).someMethodWithoutAnnotation((String) event);
+                    }
+                };
+                SubscriberMethodInfo[] methodInfos = {
+                        new SubscriberMethodInfo("methodNotFoundByReflection", String.class, invoker)
+                };
+                return new SimpleSubscriberInfo(EventBusIndexTest.class, false, methodInfos);
+            }
+        };
+
+        EventBus eventBus = EventBus.builder().addIndex(index).build();
+        eventBus.register(this);
+        eventBus.post("Yepp");
+        eventBus.unregister(this);
+        Assert.assertEquals("Yepp", value);
+    }
+
+    @Test
+    public void testGeneratedIndexProvidesInvokers() {
+        SubscriberInfo info = new EventBusJavaTestsIndex().getSubscriberInfo(EventBusBasicTest.class);
+        Assert.assertNotNull(info);
+        for (SubscriberMethod subscriberMethod : info.getSubscriberMethods()) {
+            Assert.assertNull(subscriberMethod.method);
+            Assert.assertNotNull(subscriberMethod.invoker);
+        }
+    }
+
     public void someMethodWithoutAnnotation(String value) {
         this.value = value;
     }
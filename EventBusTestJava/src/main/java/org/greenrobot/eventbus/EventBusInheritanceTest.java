@@ -18,7 +18,12 @@ package org.greenrobot.eventbus;
 import org.junit.Before;
 import org.junit.Test;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
 
 /**
  * @author Markus Junginger, greenrobot
@@ -66,6 +71,40 @@ public class EventBusInheritanceTest {
         assertEquals(3, countObjectEvent);
     }
 
+    @Test
+    public void testEventClassHierarchyStickyRemoved() {
+        eventBus.postSticky(new MyEvent());
+        MyEventExtended extended = new MyEventExtended();
+        eventBus.postSticky(extended);
+        assertTrue(eventBus.removeStickyEvent(extended));
+        eventBus.register(new StickySubscriber());
+        assertEquals(0, countMyEventExtended);
+        assertEquals(1, countMyEvent);
+        assertEquals(1, countMyEventInterface);
+        assertEquals(0, countMyEventInterfaceExtended);
+        assertEquals(1, countObjectEvent);
+    }
+
+    @Test
+    public void testGetStickyEvents() {
+        MyEvent myEvent = new MyEvent();
+        MyEventExtended extended = new MyEventExtended();
+        eventBus.postSticky("Hello");
+        eventBus.postSticky(myEvent);
+        eventBus.postSticky(extended);
+        assertEquals(3, eventBus.getStickyEvents(Object.class).size());
+        List<MyEventInterface> events = eventBus.getStickyEvents(MyEventInterface.class);
+        assertEquals(2, events.size());
+        assertTrue(events.contains(myEvent));
+        assertTrue(events.contains(extended));
+        assertEquals(Collections.singletonList(extended), eventBus.getStickyEvents(MyEventInterfaceExtended.class));
+
+        eventBus.removeStickyEvent(MyEvent.class);
+        assertEquals(Collections.singletonList(extended), eventBus.getStickyEvents(MyEvent.class));
+        eventBus.removeAllStickyEvents();
+        assertTrue(eventBus.getStickyEvents(Object.class).isEmpty());
+    }
+
     @Test
     public void testEventInterfaceHierarchy() {
         eventBus.register(this);
@@ -127,6 +166,49 @@ public class EventBusInheritanceTest {
         assertEquals(1, subscriber.countMyEventExtended);
     }
 
+    @Test
+    public void testPriorityAcrossEventClassHierarchy() {
+        PrioritySubscriber subscriber = new PrioritySubscriber(false);
+        eventBus.register(subscriber);
+
+        eventBus.post(new MyEventExtended());
+        assertEquals("Object,MyEventInterface,MyEventExtended,MyEvent", join(subscriber.received));
+    }
+
+    @Test
+    public void testCancelAcrossEventClassHierarchy() {
+        PrioritySubscriber subscriber = new PrioritySubscriber(true);
+        eventBus.register(subscriber);
+
+        eventBus.post(new MyEventExtended());
+        assertEquals("Object", join(subscriber.received));
+    }
+
+    @Test
+    public void testRegisterAfterPost() {
+        eventBus.post(new MyEventExtended());
+        eventBus.register(this);
+        eventBus.post(new MyEventExtended());
+        assertEquals(1, countObjectEvent);
+        assertEquals(1, countMyEventExtended);
+
+        eventBus.unregister(this);
+        eventBus.post(new MyEventExtended());
+        assertEquals(1, countObjectEvent);
+        assertEquals(1, countMyEventExtended);
+    }
+
+    private static String join(List<String> strings) {
+        StringBuilder builder = new StringBuilder();
+        for (String string : strings) {
+            if (builder.length() > 0) {
+                builder.append(',');
+            }
+            builder.append(string);
+        }
+        return builder.toString();
+    }
+
     @Subscribe
     public void onEvent(Object event) {
         countObjectEvent++;
@@ -164,6 +246,38 @@ public class EventBusInheritanceTest {
     public static class MyEventExtended extends MyEvent implements MyEventInterfaceExtended {
     }
 
+    public class PrioritySubscriber {
+        final List<String> received = new ArrayList<>();
+        private final boolean cancel;
+
+        PrioritySubscriber(boolean cancel) {
+            this.cancel = cancel;
+        }
+
+        @Subscribe(priority = 3)
+        public void onEvent(Object event) {
+            received.add("Object");
+            if (cancel) {
+                eventBus.cancelEventDelivery(event);
+            }
+        }
+
+        @Subscribe(priority = 1)
+        public void onEvent(MyEvent event) {
+            received.add("MyEvent");
+        }
+
+        @Subscribe(priority = 1)
+        public void onEvent(MyEventExtended event) {
+            received.add("MyEventExtended");
+        }
+
+        @Subscribe(priority = 2)
+        public void onEvent(MyEventInterface event) {
+            received.add("MyEventInterface");
+        }
+    }
+
     public class StickySubscriber {
         @Subscribe(sticky = true)
         public void onEvent(Object event) {
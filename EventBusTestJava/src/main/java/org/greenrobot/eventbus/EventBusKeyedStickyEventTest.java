@@ -0,0 +1,132 @@
+/*
+ * Copyright (C) 2012-2020 Markus Junginger, greenrobot (http://greenrobot.org)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.greenrobot.eventbus;
+
+import org.junit.Test;
+
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class EventBusKeyedStickyEventTest extends AbstractEventBusTest {
+
+    public EventBusKeyedStickyEventTest() {
+        super(true);
+    }
+
+    @Test
+    public void testPostKeyedSticky() {
+        eventBus.register(new NonStickySubscriber());
+        IntTestEvent event = new IntTestEvent(1);
+        eventBus.postSticky(event, "a");
+        // Posted like any sticky event
+        assertEventCount(1);
+        assertSame(event, eventBus.getStickyEvent(IntTestEvent.class, "a"));
+        assertNull(eventBus.getStickyEvent(IntTestEvent.class, "b"));
+        // Independent of the non-keyed sticky event
+        assertNull(eventBus.getStickyEvent(IntTestEvent.class));
+    }
+
+    @Test
+    public void testReplaceAndRemove() {
+        IntTestEvent event1 = new IntTestEvent(1);
+        IntTestEvent event2 = new IntTestEvent(2);
+        IntTestEvent event3 = new IntTestEvent(3);
+        eventBus.postSticky(event1, "a");
+        eventBus.postSticky(event2, "b");
+        eventBus.postSticky(event3, "a");
+        Map<Object, IntTestEvent> eventsByKey = eventBus.getStickyEventsByKey(IntTestEvent.class);
+        assertEquals(2, eventsByKey.size());
+        assertSame(event3, eventsByKey.get("a"));
+        assertSame(event2, eventsByKey.get("b"));
+
+        assertSame(event2, eventBus.removeStickyEvent(IntTestEvent.class, "b"));
+        assertNull(eventBus.removeStickyEvent(IntTestEvent.class, "b"));
+        assertEquals(1, eventsByKey.size());
+        eventBus.removeAllStickyEvents();
+        assertTrue(eventsByKey.isEmpty());
+        assertTrue(eventBus.getStickyEventsByKey(String.class).isEmpty());
+    }
+
+    @Test
+    public void testRegisterAllKeys() {
+        eventBus.postSticky(new IntTestEvent(0));
+        for (int i = 1; i <= 100; i++) {
+            eventBus.postSticky(new IntTestEvent(i), i);
+        }
+        eventBus.register(new StickySubscriber());
+        assertEventCount(101);
+    }
+
+    @Test
+    public void testRegisterWithKey() {
+        IntTestEvent event = new IntTestEvent(42);
+        eventBus.postSticky("Hello");
+        for (int i = 1; i <= 100; i++) {
+            eventBus.postSticky(new IntTestEvent(i), i);
+        }
+        eventBus.postSticky(event, 42);
+        eventBus.register(new StickySubscriber(), 42);
+        // Non-keyed sticky events are delivered as usual
+        assertEventCount(2);
+        assertTrue(eventsReceived.contains("Hello"));
+        assertTrue(eventsReceived.contains(event));
+
+        // Live events are not filtered
+        eventBus.postSticky(new IntTestEvent(7), 7);
+        assertEventCount(3);
+    }
+
+    @Test
+    public void testRegisterWithKeyInheritance() {
+        IntTestEvent event = new IntTestEvent(2);
+        eventBus.postSticky(new IntTestEvent(1), "a");
+        eventBus.postSticky(event, "b");
+        eventBus.register(new StickyObjectSubscriber(), "b");
+        assertEventCount(1);
+        assertSame(event, lastEvent);
+    }
+
+    public class NonStickySubscriber {
+        @Subscribe
+        public void onEvent(IntTestEvent event) {
+            trackEvent(event);
+        }
+    }
+
+    public class StickySubscriber {
+        @Subscribe(sticky = true)
+        public void onEvent(String event) {
+            trackEvent(event);
+        }
+
+        @Subscribe(sticky = true)
+        public void onEvent(IntTestEvent event) {
+            trackEvent(event);
+        }
+    }
+
+    public class StickyObjectSubscriber {
+        @Subscribe(sticky = true)
+        public void onEvent(Object event) {
+            trackEvent(event);
+        }
+    }
+
+}
@@ -17,6 +17,11 @@ package org.greenrobot.eventbus;
 
 import org.junit.Test;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertSame;
 
@@ -57,6 +62,60 @@ public class EventBusNoSubscriberEventTest extends AbstractEventBusTest {
         assertEquals("Foo", noSub.originalEvent);
     }
 
+    @Test
+    public void testNoSubscriberEventInterval() {
+        eventBus = EventBus.builder().logNoSubscriberMessages(false)
+                .noSubscriberEventInterval(1, TimeUnit.HOURS).build();
+        eventBus.register(this);
+        eventBus.post("Foo");
+        eventBus.post("Bar");
+        eventBus.post(42);
+        eventBus.post(43);
+        assertEventCount(2);
+        assertEquals(42, ((NoSubscriberEvent) lastEvent).originalEvent);
+    }
+
+    @Test
+    public void testNoSubscriberEventAfterInterval() throws InterruptedException {
+        eventBus = EventBus.builder().logNoSubscriberMessages(false)
+                .noSubscriberEventInterval(1, TimeUnit.MILLISECONDS).build();
+        eventBus.register(this);
+        eventBus.post("Foo");
+        Thread.sleep(10);
+        eventBus.post("Bar");
+        assertEventCount(2);
+        assertEquals("Bar", ((NoSubscriberEvent) lastEvent).originalEvent);
+    }
+
+    @Test
+    public void testNoSubscriberMessageInterval() throws InterruptedException {
+        final List<String> messages = new ArrayList<>();
+        Logger logger = new Logger() {
+            @Override
+            public void log(Level level, String msg) {
+                messages.add(msg);
+            }
+
+            @Override
+            public void log(Level level, String msg, Throwable th) {
+                messages.add(msg);
+            }
+        };
+        eventBus = EventBus.builder().logger(logger).sendNoSubscriberEvent(false)
+                .noSubscriberMessageInterval(500, TimeUnit.MILLISECONDS).build();
+        for (int i = 0; i < 10; i++) {
+            eventBus.post("Foo");
+        }
+        assertEquals(1, messages.size());
+        assertEquals("No subscribers registered for event " + String.class, messages.get(0));
+
+        Thread.sleep(600);
+        eventBus.post("Foo");
+        assertEquals(2, messages.size());
+        assertEquals("No subscribers registered for event " + String.class + " (9 more since last message)",
+                messages.get(1));
+    }
+
     @Subscribe
     public void onEvent(NoSubscriberEvent event) {
         trackEvent(event);
@@ -0,0 +1,119 @@
+/*
+ * Copyright (C) 2012-2020 Markus Junginger, greenrobot (http://greenrobot.org)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.greenrobot.eventbus;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertTrue;
+
+public class EventBusOrderedAsyncTest extends AbstractEventBusTest {
+
+    private static final int SUBSCRIBERS = 8;
+    private static final int COUNT = 1000;
+
+    @Test
+    public void testAsyncOrdered() {
+        OrderedSubscriber subscriber = new OrderedSubscriber();
+        eventBus.register(subscriber);
+        eventBus.post(1);
+        waitForEventCount(1, 1000);
+        assertNotSame(Thread.currentThread(), lastThread);
+    }
+
+    @Test
+    public void testOrderPerSubscriber() {
+        List<OrderedSubscriber> subscribers = new ArrayList<>();
+        for (int i = 0; i < SUBSCRIBERS; i++) {
+            OrderedSubscriber subscriber = new OrderedSubscriber();
+            eventBus.register(subscriber);
+            subscribers.add(subscriber);
+        }
+        for (int i = 0; i < COUNT; i++) {
+            eventBus.post(i);
+            // Methods of the same subscriber share the mailbox
+            eventBus.post(String.valueOf(i));
+        }
+        waitForEventCount(2 * SUBSCRIBERS * COUNT, 5000);
+        for (OrderedSubscriber subscriber : subscribers) {
+            assertFalse(subscriber.concurrentCall);
+            assertEquals(2 * COUNT, subscriber.received.size());
+            for (int i = 0; i < COUNT; i++) {
+                assertEquals(i, subscriber.received.get(2 * i));
+                assertEquals(String.valueOf(i), subscriber.received.get(2 * i + 1));
+            }
+        }
+    }
+
+    @Test
+    public void testSubscribersRunConcurrently() throws InterruptedException {
+        BlockingSubscriber subscriber1 = new BlockingSubscriber();
+        BlockingSubscriber subscriber2 = new BlockingSubscriber();
+        eventBus.register(subscriber1);
+        eventBus.register(subscriber2);
+        eventBus.post(1);
+        // The second one must start while the first one still blocks its thread
+        assertTrue(subscriber1.started.await(5, TimeUnit.SECONDS));
+        assertTrue(subscriber2.started.await(5, TimeUnit.SECONDS));
+        subscriber1.release.countDown();
+        subscriber2.release.countDown();
+    }
+
+    public class OrderedSubscriber {
+        final List<Object> received = new ArrayList<>();
+        final AtomicInteger calls = new AtomicInteger();
+        volatile boolean concurrentCall;
+
+        @Subscribe(threadMode = ThreadMode.ASYNC_ORDERED)
+        public void onEvent(Integer event) {
+            handle(event);
+        }
+
+        @Subscribe(threadMode = ThreadMode.ASYNC_ORDERED)
+        public void onEvent(String event) {
+            handle(event);
+        }
+
+        private void handle(Object event) {
+            if (calls.incrementAndGet() != 1) {
+                concurrentCall = true;
+            }
+            received.add(event);
+            calls.decrementAndGet();
+            trackEvent(event);
+        }
+    }
+
+    public static class BlockingSubscriber {
+        final CountDownLatch started = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+
+        @Subscribe(threadMode = ThreadMode.ASYNC_ORDERED)
+        public void onEvent(Integer event) throws InterruptedException {
+            started.countDown();
+            release.await(5, TimeUnit.SECONDS);
+        }
+    }
+
+}
@@ -0,0 +1,155 @@
+/*
+ * Copyright (C) 2012-2020 Markus Junginger, greenrobot (http://greenrobot.org)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.greenrobot.eventbus;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Collections;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class EventBusParallelFanOutTest extends AbstractEventBusTest {
+
+    private static final int SUBSCRIBERS = 400;
+
+    private ForkJoinPool pool;
+    private final Set<Thread> threads = Collections.newSetFromMap(new ConcurrentHashMap<Thread, Boolean>());
+    private final AtomicInteger highPriorityCount = new AtomicInteger();
+    private final AtomicInteger nestedCount = new AtomicInteger();
+    private volatile boolean bandOrderViolated;
+
+    @Before
+    public void setUpFanOut() {
+        pool = new ForkJoinPool(4);
+        eventBus = EventBus.builder().parallelFanOut(10, pool).build();
+    }
+
+    @After
+    public void tearDownFanOut() {
+        pool.shutdown();
+    }
+
+    @Test
+    public void testFanOut() {
+        for (int i = 0; i < SUBSCRIBERS; i++) {
+            eventBus.register(new SlowSubscriber());
+        }
+        eventBus.post("Hello");
+        // All called before post returns
+        assertEventCount(SUBSCRIBERS);
+        assertTrue("Threads: " + threads.size(), threads.size() > 1);
+    }
+
+    @Test
+    public void testBelowThreshold() {
+        for (int i = 0; i < 9; i++) {
+            eventBus.register(new SlowSubscriber());
+        }
+        eventBus.post("Hello");
+        assertEventCount(9);
+        assertEquals(1, threads.size());
+        assertTrue(threads.contains(Thread.currentThread()));
+    }
+
+    @Test
+    public void testPriorityBands() {
+        for (int i = 0; i < SUBSCRIBERS / 2; i++) {
+            eventBus.register(new HighPrioritySubscriber(false));
+            eventBus.register(new SlowSubscriber());
+        }
+        eventBus.post("Hello");
+        assertEventCount(SUBSCRIBERS);
+        assertFalse(bandOrderViolated);
+    }
+
+    @Test
+    public void testCancelPerBand() {
+        eventBus.register(new HighPrioritySubscriber(true));
+        for (int i = 0; i < SUBSCRIBERS / 2; i++) {
+            eventBus.register(new HighPrioritySubscriber(false));
+            eventBus.register(new SlowSubscriber());
+        }
+        eventBus.post("Hello");
+        // The band of the canceling subscriber completes, lower priorities are skipped
+        assertEventCount(SUBSCRIBERS / 2 + 1);
+        assertEquals(SUBSCRIBERS / 2 + 1, highPriorityCount.get());
+    }
+
+    @Test
+    public void testPostInSubscriber() {
+        eventBus.register(new NestedEventSubscriber());
+        for (int i = 0; i < SUBSCRIBERS; i++) {
+            eventBus.register(new PostingSubscriber());
+        }
+        eventBus.post("Hello");
+        assertEventCount(SUBSCRIBERS);
+        assertEquals(SUBSCRIBERS, nestedCount.get());
+    }
+
+    public class SlowSubscriber {
+        @Subscribe
+        public void onEvent(String event) throws InterruptedException {
+            if (highPriorityCount.get() != 0 && highPriorityCount.get() != SUBSCRIBERS / 2) {
+                bandOrderViolated = true;
+            }
+            threads.add(Thread.currentThread());
+            Thread.sleep(1);
+            trackEvent(event);
+        }
+    }
+
+    public class HighPrioritySubscriber {
+        private final boolean cancel;
+
+        HighPrioritySubscriber(boolean cancel) {
+            this.cancel = cancel;
+        }
+
+        @Subscribe(priority = 1)
+        public void onEvent(String event) throws InterruptedException {
+            Thread.sleep(1);
+            highPriorityCount.incrementAndGet();
+            trackEvent(event);
+            if (cancel) {
+                eventBus.cancelEventDelivery(event);
+            }
+        }
+    }
+
+    public class PostingSubscriber {
+        @Subscribe
+        public void onEvent(String event) {
+            eventBus.post(42);
+            trackEvent(event);
+        }
+    }
+
+    public class NestedEventSubscriber {
+        @Subscribe
+        public void onEvent(Integer event) {
+            nestedCount.incrementAndGet();
+        }
+    }
+
+}
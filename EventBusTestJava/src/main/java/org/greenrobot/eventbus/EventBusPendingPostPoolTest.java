@@ -0,0 +1,151 @@
+/*
+ * Copyright (C) 2012-2020 Markus Junginger, greenrobot (http://greenrobot.org)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.greenrobot.eventbus;
+
+import org.junit.Test;
+
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Checks pooling statistics and compares the pooling options with plain allocation when several threads post
+ * {@link ThreadMode#BACKGROUND} events. Run with different garbage collectors (e.g. -XX:+UseG1GC, -XX:+UseZGC) to
+ * compare against their allocation cost.
+ */
+public class EventBusPendingPostPoolTest extends AbstractEventBusTest {
+
+    private static final int THREADS = 4;
+    private static final int COUNT = LONG_TESTS ? 1000000 : 50000;
+
+    @Test
+    public void testNoPooling() {
+        PendingPostPool pool = PendingPostPool.create(PendingPostPooling.NONE);
+        PendingPost pendingPost = pool.obtain(null, "Hello");
+        pool.release(pendingPost);
+        assertNotSame(pendingPost, pool.obtain(null, "World"));
+        assertEquals(0, pool.hits.get());
+        assertEquals(2, pool.misses.get());
+    }
+
+    @Test
+    public void testThreadLocalPooling() {
+        assertReused(PendingPostPooling.THREAD_LOCAL);
+    }
+
+    @Test
+    public void testStripedPooling() {
+        assertReused(PendingPostPooling.STRIPED);
+    }
+
+    private void assertReused(PendingPostPooling pooling) {
+        PendingPostPool pool = PendingPostPool.create(pooling);
+        PendingPost pendingPost = pool.obtain(null, "Hello");
+        assertEquals(0, pool.hits.get());
+        assertEquals(1, pool.misses.get());
+
+        pool.release(pendingPost);
+        assertNull(pendingPost.event);
+        PendingPost reused = pool.obtain(null, "World");
+        assertSame(pendingPost, reused);
+        assertEquals("World", reused.event);
+        assertEquals(1, pool.hits.get());
+        assertEquals(1, pool.misses.get());
+    }
+
+    @Test
+    public void testBackgroundDeliveryReusesPendingPosts() {
+        eventBus.register(this);
+        for (int i = 0; i < 100; i++) {
+            eventBus.post("Hello");
+            // Pending posts are released after delivery
+            waitForEventCount(i + 1, 1000);
+        }
+        assertEquals(100, eventBus.getPendingPostPoolHits() + eventBus.getPendingPostPoolMisses());
+        assertTrue(eventBus.getPendingPostPoolHits() > 0);
+    }
+
+    @Test
+    public void testPoolingThroughput() throws InterruptedException {
+        List<String> collectors = new ArrayList<>();
+        for (GarbageCollectorMXBean bean : ManagementFactory.getGarbageCollectorMXBeans()) {
+            collectors.add(bean.getName());
+        }
+        log("Garbage collectors: " + collectors);
+        for (int round = 0; round < 2; round++) {
+            // First round is warmup
+            for (PendingPostPooling pooling : PendingPostPooling.values()) {
+                measureThroughput(pooling, round == 1);
+            }
+        }
+    }
+
+    private void measureThroughput(PendingPostPooling pooling, boolean logResult) throws InterruptedException {
+        eventCount.set(0);
+        eventBus = EventBus.builder().pendingPostPooling(pooling).build();
+        eventBus.register(this);
+        final int iterations = COUNT / THREADS;
+        final CountDownLatch latch = new CountDownLatch(THREADS + 1);
+        List<Thread> threads = new ArrayList<>();
+        for (int i = 0; i < THREADS; i++) {
+            Thread thread = new Thread() {
+                @Override
+                public void run() {
+                    latch.countDown();
+                    try {
+                        latch.await();
+                    } catch (InterruptedException e) {
+                        throw new RuntimeException(e);
+                    }
+                    for (int i = 0; i < iterations; i++) {
+                        eventBus.post("Hello");
+                    }
+                }
+            };
+            thread.start();
+            threads.add(thread);
+        }
+        while (latch.getCount() != 1) {
+            Thread.sleep(1);
+        }
+        long start = System.nanoTime();
+        latch.countDown();
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        waitForEventCount(THREADS * iterations, 10000);
+        long time = Math.max((System.nanoTime() - start) / 1000000, 1);
+        if (logResult) {
+            log(pooling + ": " + THREADS + " threads posted " + THREADS * iterations + " events in " + time + "ms (" +
+                    (THREADS * iterations * 1000L / time) + " events/s), pool hits: " +
+                    eventBus.getPendingPostPoolHits() + ", misses: " + eventBus.getPendingPostPoolMisses());
+        }
+    }
+
+    @Subscribe(threadMode = ThreadMode.BACKGROUND)
+    public void onEvent(String event) {
+        trackEvent(event);
+    }
+
+}
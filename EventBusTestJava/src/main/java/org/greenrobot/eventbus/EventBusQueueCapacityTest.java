@@ -0,0 +1,388 @@
+/*
+ * Copyright (C) 2012-2020 Markus Junginger, greenrobot (http://greenrobot.org)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.greenrobot.eventbus;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class EventBusQueueCapacityTest extends AbstractEventBusTest {
+
+    private final List<Object> overflowEvents = Collections.synchronizedList(new ArrayList<Object>());
+
+    @Test
+    public void testDropNewest() throws InterruptedException {
+        eventBus = EventBus.builder().queueCapacity(2, OverflowPolicy.DROP_NEWEST).build();
+        BlockingSubscriber subscriber = postFiveWhileBlocked();
+        subscriber.awaitEvents(3);
+        assertEquals(Arrays.<Object>asList(1, 2, 3), subscriber.received);
+        assertEquals(2, eventBus.getOverflowCount());
+    }
+
+    @Test
+    public void testDropOldest() throws InterruptedException {
+        eventBus = EventBus.builder().queueCapacity(2, OverflowPolicy.DROP_OLDEST).build();
+        BlockingSubscriber subscriber = postFiveWhileBlocked();
+        subscriber.awaitEvents(3);
+        assertEquals(Arrays.<Object>asList(1, 4, 5), subscriber.received);
+        assertEquals(2, eventBus.getOverflowCount());
+    }
+
+    @Test
+    public void testDropOldestBounded() throws InterruptedException {
+        eventBus = EventBus.builder().queueCapacity(1, OverflowPolicy.DROP_OLDEST).build();
+        BlockingSubscriber subscriber = postFiveWhileBlocked();
+        subscriber.awaitEvents(2);
+        // Event 3 dropped the oldest (2); with two events held, 4 and 5 were dropped themselves
+        assertEquals(Arrays.<Object>asList(1, 3), subscriber.received);
+        assertEquals(3, eventBus.getOverflowCount());
+    }
+
+    @Test
+    public void testDropOldestOfAffectedQueue() throws InterruptedException {
+        eventBus = EventBus.builder().queueCapacity(1, OverflowPolicy.DROP_OLDEST).build();
+        BlockingSubscriber subscriber = new BlockingSubscriber();
+        BlockingStringSubscriber stringSubscriber = new BlockingStringSubscriber();
+        eventBus.register(subscriber);
+        eventBus.register(stringSubscriber);
+        eventBus.post(1);
+        eventBus.post("a");
+        assertTrue(subscriber.started.await(5, TimeUnit.SECONDS));
+        assertTrue(stringSubscriber.started.await(5, TimeUnit.SECONDS));
+        // Each mailbox has its own capacity; 3 must drop 2 from its own mailbox, not "b" from the other one
+        eventBus.post("b");
+        eventBus.post(2);
+        eventBus.post(3);
+        stringSubscriber.release.countDown();
+        stringSubscriber.awaitEvents(2);
+        subscriber.release.countDown();
+        subscriber.awaitEvents(2);
+        assertEquals(Arrays.<Object>asList("a", "b"), stringSubscriber.received);
+        assertEquals(Arrays.<Object>asList(1, 3), subscriber.received);
+        assertEquals(1, eventBus.getOverflowCount());
+    }
+
+    @Test
+    public void testDropOldestWithBackgroundLanes() throws InterruptedException {
+        eventBus = EventBus.builder().queueCapacity(1, OverflowPolicy.DROP_OLDEST).backgroundLanes(2).build();
+        BlockingBackgroundIntegerSubscriber subscriber = new BlockingBackgroundIntegerSubscriber();
+        int lane = BackgroundPoster.laneIndex(subscriber, Integer.class, false, 2);
+        BlockingBackgroundStringSubscriber stringSubscriber;
+        do {
+            stringSubscriber = new BlockingBackgroundStringSubscriber();
+        } while (BackgroundPoster.laneIndex(stringSubscriber, String.class, false, 2) == lane);
+        eventBus.register(subscriber);
+        eventBus.register(stringSubscriber);
+        eventBus.post(1);
+        eventBus.post("a");
+        assertTrue(subscriber.started.await(5, TimeUnit.SECONDS));
+        assertTrue(stringSubscriber.started.await(5, TimeUnit.SECONDS));
+        // Each lane has its own capacity: "b" fits into the other lane, and 3 drops the oldest of its lane, 2
+        eventBus.post(2);
+        eventBus.post("b");
+        eventBus.post(3);
+        subscriber.release.countDown();
+        stringSubscriber.release.countDown();
+        subscriber.awaitEvents(2);
+        stringSubscriber.awaitEvents(2);
+        assertEquals(Arrays.<Object>asList(1, 3), subscriber.received);
+        assertEquals(Arrays.<Object>asList("a", "b"), stringSubscriber.received);
+        assertEquals(1, eventBus.getOverflowCount());
+    }
+
+    @Test
+    public void testDropOldestWithCustomMainThreadPoster() throws InterruptedException {
+        final List<Object> mainThreadEvents = Collections.synchronizedList(new ArrayList<Object>());
+        EventBusBuilder builder = EventBus.builder().queueCapacity(1, OverflowPolicy.DROP_OLDEST);
+        // Holds on to events without delivering them, and does not use pending posts
+        builder.mainThreadSupport = new MainThreadSupport() {
+            @Override
+            public boolean isMainThread() {
+                return false;
+            }
+
+            @Override
+            public Poster createPoster(EventBus eventBus) {
+                return new Poster() {
+                    @Override
+                    public void enqueue(Subscription subscription, Object event) {
+                        mainThreadEvents.add(event);
+                    }
+                };
+            }
+        };
+        eventBus = builder.build();
+        eventBus.register(new MainThreadSubscriber());
+        BlockingStringSubscriber stringSubscriber = new BlockingStringSubscriber();
+        eventBus.register(stringSubscriber);
+        eventBus.post(1);
+        // The custom poster cannot drop 1, so 2 is dropped instead
+        eventBus.post(2);
+        assertEquals(Collections.<Object>singletonList(1), mainThreadEvents);
+        assertEquals(1, eventBus.getOverflowCount());
+
+        // Must not be affected by the overflow of the other poster
+        eventBus.post("a");
+        assertTrue(stringSubscriber.started.await(5, TimeUnit.SECONDS));
+        stringSubscriber.release.countDown();
+        stringSubscriber.awaitEvents(1);
+        assertEquals(Collections.<Object>singletonList("a"), stringSubscriber.received);
+    }
+
+    @Test
+    public void testCallback() throws InterruptedException {
+        eventBus = EventBus.builder().queueCapacity(2, OverflowPolicy.CALLBACK).overflowHandler(new OverflowHandler() {
+            @Override
+            public void onOverflow(Object event, Object subscriber) {
+                overflowEvents.add(event);
+            }
+        }).build();
+        BlockingSubscriber subscriber = postFiveWhileBlocked();
+        subscriber.awaitEvents(3);
+        assertEquals(Arrays.<Object>asList(1, 2, 3), subscriber.received);
+        assertEquals(Arrays.<Object>asList(4, 5), overflowEvents);
+    }
+
+    @Test(expected = EventBusException.class)
+    public void testCallbackRequiresHandler() {
+        EventBus.builder().queueCapacity(2, OverflowPolicy.CALLBACK).build();
+    }
+
+    @Test
+    public void testBlock() throws InterruptedException {
+        eventBus = EventBus.builder().queueCapacity(2, OverflowPolicy.BLOCK).build();
+        final BlockingSubscriber subscriber = new BlockingSubscriber();
+        eventBus.register(subscriber);
+        eventBus.post(1);
+        assertTrue(subscriber.started.await(5, TimeUnit.SECONDS));
+        eventBus.post(2);
+        eventBus.post(3);
+        Thread producer = new Thread() {
+            @Override
+            public void run() {
+                eventBus.post(4);
+            }
+        };
+        producer.start();
+        waitForState(producer, Thread.State.WAITING);
+        subscriber.release.countDown();
+        producer.join(5000);
+        subscriber.awaitEvents(4);
+        assertEquals(Arrays.<Object>asList(1, 2, 3, 4), subscriber.received);
+        assertEquals(0, eventBus.getOverflowCount());
+    }
+
+    @Test
+    public void testBlockDoesNotBlockDeliveringThread() throws InterruptedException {
+        eventBus = EventBus.builder().queueCapacity(2, OverflowPolicy.BLOCK).build();
+        SelfPostingSubscriber subscriber = new SelfPostingSubscriber();
+        eventBus.register(subscriber);
+        eventBus.post(10);
+        // The subscriber fills its own mailbox beyond the capacity
+        waitForEventCount(11, 5000);
+    }
+
+    @Test
+    public void testBlockDoesNotBlockStickyRegistration() throws InterruptedException {
+        eventBus = EventBus.builder().queueCapacity(1, OverflowPolicy.BLOCK).build();
+        final BlockingBackgroundSubscriber subscriber = new BlockingBackgroundSubscriber();
+        eventBus.register(subscriber);
+        eventBus.post(1);
+        assertTrue(subscriber.started.await(5, TimeUnit.SECONDS));
+        // Fills the queue
+        eventBus.post(2);
+        eventBus.postSticky("Sticky");
+        final StickyBackgroundSubscriber stickySubscriber = new StickyBackgroundSubscriber();
+        Thread registering = new Thread() {
+            @Override
+            public void run() {
+                eventBus.register(stickySubscriber);
+            }
+        };
+        registering.start();
+        // Must not wait for capacity while holding the monitor of the bus
+        registering.join(2000);
+        boolean blocked = registering.isAlive();
+        subscriber.release.countDown();
+        assertFalse(blocked);
+        assertTrue(stickySubscriber.received.await(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void testCapacityPerSubscriber() throws InterruptedException {
+        eventBus = EventBus.builder().queueCapacity(2, OverflowPolicy.DROP_NEWEST).queueCapacityPerSubscriber(true)
+                .build();
+        BlockingSubscriber subscriber1 = new BlockingSubscriber();
+        BlockingSubscriber subscriber2 = new BlockingSubscriber();
+        eventBus.register(subscriber1);
+        eventBus.register(subscriber2);
+        eventBus.post(1);
+        assertTrue(subscriber1.started.await(5, TimeUnit.SECONDS));
+        assertTrue(subscriber2.started.await(5, TimeUnit.SECONDS));
+        eventBus.post(2);
+        eventBus.post(3);
+        eventBus.post(4);
+        subscriber1.release.countDown();
+        subscriber2.release.countDown();
+        subscriber1.awaitEvents(3);
+        subscriber2.awaitEvents(3);
+        assertEquals(Arrays.<Object>asList(1, 2, 3), subscriber1.received);
+        assertEquals(Arrays.<Object>asList(1, 2, 3), subscriber2.received);
+        assertEquals(2, eventBus.getOverflowCount());
+    }
+
+    @Test
+    public void testCapacityPerPoster() throws InterruptedException {
+        eventBus = EventBus.builder().queueCapacity(2, OverflowPolicy.DROP_NEWEST).build();
+        BlockingSubscriber subscriber1 = new BlockingSubscriber();
+        BlockingSubscriber subscriber2 = new BlockingSubscriber();
+        eventBus.register(subscriber1);
+        eventBus.register(subscriber2);
+        eventBus.post(1);
+        assertTrue(subscriber1.started.await(5, TimeUnit.SECONDS));
+        assertTrue(subscriber2.started.await(5, TimeUnit.SECONDS));
+        // Both mailboxes share the capacity
+        eventBus.post(2);
+        eventBus.post(3);
+        subscriber1.release.countDown();
+        subscriber2.release.countDown();
+        subscriber1.awaitEvents(2);
+        subscriber2.awaitEvents(2);
+        assertEquals(Arrays.<Object>asList(1, 2), subscriber1.received);
+        assertEquals(Arrays.<Object>asList(1, 2), subscriber2.received);
+        assertEquals(2, eventBus.getOverflowCount());
+    }
+
+    private BlockingSubscriber postFiveWhileBlocked() throws InterruptedException {
+        BlockingSubscriber subscriber = new BlockingSubscriber();
+        eventBus.register(subscriber);
+        eventBus.post(1);
+        assertTrue(subscriber.started.await(5, TimeUnit.SECONDS));
+        for (int i = 2; i <= 5; i++) {
+            eventBus.post(i);
+        }
+        subscriber.release.countDown();
+        return subscriber;
+    }
+
+    private void waitForState(Thread thread, Thread.State state) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (thread.getState() != state) {
+            if (System.currentTimeMillis() > deadline) {
+                fail("Thread state: " + thread.getState());
+            }
+            Thread.sleep(1);
+        }
+    }
+
+    public abstract static class AbstractBlockingSubscriber {
+        final CountDownLatch started = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        final List<Object> received = Collections.synchronizedList(new ArrayList<Object>());
+
+        void receive(Object event) throws InterruptedException {
+            received.add(event);
+            started.countDown();
+            release.await(5, TimeUnit.SECONDS);
+        }
+
+        void awaitEvents(int count) throws InterruptedException {
+            long deadline = System.currentTimeMillis() + 5000;
+            while (received.size() < count && System.currentTimeMillis() < deadline) {
+                Thread.sleep(1);
+            }
+            // Give dropped events a chance to show up wrongly
+            Thread.sleep(20);
+        }
+    }
+
+    public static class BlockingSubscriber extends AbstractBlockingSubscriber {
+        @Subscribe(threadMode = ThreadMode.ASYNC_ORDERED)
+        public void onEvent(Integer event) throws InterruptedException {
+            receive(event);
+        }
+    }
+
+    public static class BlockingStringSubscriber extends AbstractBlockingSubscriber {
+        @Subscribe(threadMode = ThreadMode.ASYNC_ORDERED)
+        public void onEvent(String event) throws InterruptedException {
+            receive(event);
+        }
+    }
+
+    public static class BlockingBackgroundIntegerSubscriber extends AbstractBlockingSubscriber {
+        @Subscribe(threadMode = ThreadMode.BACKGROUND)
+        public void onEvent(Integer event) throws InterruptedException {
+            receive(event);
+        }
+    }
+
+    public static class BlockingBackgroundStringSubscriber extends AbstractBlockingSubscriber {
+        @Subscribe(threadMode = ThreadMode.BACKGROUND)
+        public void onEvent(String event) throws InterruptedException {
+            receive(event);
+        }
+    }
+
+    public static class MainThreadSubscriber {
+        @Subscribe(threadMode = ThreadMode.MAIN)
+        public void onEvent(Integer event) {
+        }
+    }
+
+    public static class BlockingBackgroundSubscriber {
+        final CountDownLatch started = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+
+        @Subscribe(threadMode = ThreadMode.BACKGROUND)
+        public void onEvent(Integer event) throws InterruptedException {
+            started.countDown();
+            release.await(30, TimeUnit.SECONDS);
+        }
+    }
+
+    public static class StickyBackgroundSubscriber {
+        final CountDownLatch received = new CountDownLatch(1);
+
+        @Subscribe(threadMode = ThreadMode.BACKGROUND, sticky = true)
+        public void onEvent(String event) {
+            received.countDown();
+        }
+    }
+
+    public class SelfPostingSubscriber {
+        @Subscribe(threadMode = ThreadMode.ASYNC_ORDERED)
+        public void onEvent(Integer event) {
+            trackEvent(event);
+            if (event == 10) {
+                for (int i = 0; i < 10; i++) {
+                    eventBus.post(i);
+                }
+            }
+        }
+    }
+
+}
@@ -0,0 +1,129 @@
+/*
+ * Copyright (C) 2012-2020 Markus Junginger, greenrobot (http://greenrobot.org)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.greenrobot.eventbus;
+
+import org.greenrobot.eventbus.meta.SimpleSubscriberInfo;
+import org.greenrobot.eventbus.meta.SubscriberInfo;
+import org.greenrobot.eventbus.meta.SubscriberInfoIndex;
+import org.greenrobot.eventbus.meta.SubscriberMethodInfo;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.fail;
+
+public class EventBusRateLimitTest extends AbstractEventBusTest {
+
+    @Test
+    public void testDebounce() throws InterruptedException {
+        eventBus.register(new DebounceSubscriber());
+        for (int i = 1; i <= 10; i++) {
+            eventBus.post(i);
+        }
+        assertEventCount(0);
+        waitForEventCount(1, 1000);
+        assertEquals(10, lastEvent);
+        assertNotSame(Thread.currentThread(), lastThread);
+
+        Thread.sleep(100);
+        assertEventCount(1);
+    }
+
+    @Test
+    public void testDebounceWithIndex() throws InterruptedException {
+        eventBus = EventBus.builder().addIndex(new EventBusJavaTestsIndex()).build();
+        testDebounce();
+    }
+
+    @Test
+    public void testDebounceWaitsForQuietPeriod() throws InterruptedException {
+        eventBus.register(new SlowDebounceSubscriber());
+        // Each event is posted before the quiet period of the previous one is over
+        for (int i = 1; i <= 5; i++) {
+            eventBus.post(i);
+            Thread.sleep(20);
+        }
+        assertEventCount(0);
+        waitForEventCount(1, 1000);
+        assertEquals(5, lastEvent);
+    }
+
+    @Test
+    public void testThrottle() throws InterruptedException {
+        eventBus.register(new ThrottleSubscriber());
+        eventBus.post("1");
+        // The first one is delivered right away
+        assertEventCount(1);
+        assertSame(Thread.currentThread(), lastThread);
+
+        eventBus.post("2");
+        eventBus.post("3");
+        eventBus.post("4");
+        assertEventCount(1);
+        waitForEventCount(2, 1000);
+        assertEquals("4", lastEvent);
+
+        Thread.sleep(200);
+        assertEventCount(2);
+        // The period is over, so this starts a new one
+        eventBus.post("5");
+        assertEventCount(3);
+    }
+
+    @Test
+    public void testDebounceAndThrottleNotSupported() {
+        SubscriberInfoIndex index = new SubscriberInfoIndex() {
+            @Override
+            public SubscriberInfo getSubscriberInfo(Class<?> subscriberClass) {
+                SubscriberMethodInfo[] methodInfos = {
+                        new SubscriberMethodInfo("onEvent", Integer.class, ThreadMode.POSTING, 0, false, false, 0, 0,
+                                100, 100, null)
+                };
+                return new SimpleSubscriberInfo(DebounceSubscriber.class, false, methodInfos);
+            }
+        };
+        eventBus = EventBus.builder().addIndex(index).build();
+        try {
+            eventBus.register(new DebounceSubscriber());
+            fail("Should have thrown");
+        } catch (EventBusException e) {
+            // Expected
+        }
+    }
+
+    public class DebounceSubscriber {
+        @Subscribe(debounceMillis = 50)
+        public void onEvent(Integer event) {
+            trackEvent(event);
+        }
+    }
+
+    public class SlowDebounceSubscriber {
+        @Subscribe(debounceMillis = 300)
+        public void onEvent(Integer event) {
+            trackEvent(event);
+        }
+    }
+
+    public class ThrottleSubscriber {
+        @Subscribe(throttleMillis = 100)
+        public void onEvent(String event) {
+            trackEvent(event);
+        }
+    }
+
+}
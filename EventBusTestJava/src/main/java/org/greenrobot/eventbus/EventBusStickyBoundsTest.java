@@ -0,0 +1,178 @@
+/*
+ * Copyright (C) 2012-2020 Markus Junginger, greenrobot (http://greenrobot.org)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.greenrobot.eventbus;
+
+import org.junit.Test;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class EventBusStickyBoundsTest extends AbstractEventBusTest {
+
+    @Test
+    public void testTimeToLive() throws InterruptedException {
+        eventBus = EventBus.builder().stickyEventTimeToLive(String.class, 50, TimeUnit.MILLISECONDS).build();
+        eventBus.postSticky("Hello");
+        eventBus.postSticky(new IntTestEvent(1));
+        assertEquals("Hello", eventBus.getStickyEvent(String.class));
+        Thread.sleep(100);
+        assertNull(eventBus.getStickyEvent(String.class));
+        assertEquals(1, eventBus.getExpiredStickyEventCount());
+        assertEquals(1, eventBus.getStickyEventCount());
+
+        eventBus.register(this);
+        // Expired sticky events are not delivered
+        assertEventCount(1);
+        assertTrue(lastEvent instanceof IntTestEvent);
+    }
+
+    @Test
+    public void testTimeToLiveNotReplayed() throws InterruptedException {
+        eventBus = EventBus.builder().stickyEventTimeToLive(String.class, 50, TimeUnit.MILLISECONDS).build();
+        eventBus.postSticky("Hello");
+        Thread.sleep(100);
+        eventBus.register(this);
+        assertEventCount(0);
+        assertEquals(1, eventBus.getExpiredStickyEventCount());
+    }
+
+    @Test
+    public void testTimeToLiveMostSpecificType() throws InterruptedException {
+        eventBus = EventBus.builder()
+                .stickyEventTimeToLive(Object.class, 50, TimeUnit.MILLISECONDS)
+                .stickyEventTimeToLive(IntTestEvent.class, 1, TimeUnit.HOURS)
+                .build();
+        eventBus.postSticky("Hello");
+        eventBus.postSticky(new IntTestEvent(1));
+        Thread.sleep(100);
+        assertNull(eventBus.getStickyEvent(String.class));
+        assertNotNull(eventBus.getStickyEvent(IntTestEvent.class));
+    }
+
+    @Test
+    public void testTimeToLiveKeyed() throws InterruptedException {
+        eventBus = EventBus.builder().stickyEventTimeToLive(IntTestEvent.class, 50, TimeUnit.MILLISECONDS).build();
+        eventBus.postSticky(new IntTestEvent(1), "a");
+        Thread.sleep(100);
+        eventBus.postSticky(new IntTestEvent(2), "b");
+        Map<Object, IntTestEvent> eventsByKey = eventBus.getStickyEventsByKey(IntTestEvent.class);
+        assertEquals(1, eventsByKey.size());
+        assertEquals(2, eventsByKey.get("b").value);
+        assertNull(eventBus.getStickyEvent(IntTestEvent.class, "a"));
+        assertNull(eventBus.removeStickyEvent(IntTestEvent.class, "a"));
+        assertEquals(1, eventBus.getStickyEventCount());
+    }
+
+    @Test
+    public void testMaxStickyEvents() {
+        eventBus = EventBus.builder().maxStickyEvents(3).build();
+        for (int i = 0; i < 5; i++) {
+            eventBus.postSticky(new IntTestEvent(i), i);
+        }
+        assertEquals(3, eventBus.getStickyEventCount());
+        assertEquals(2, eventBus.getEvictedStickyEventCount());
+        assertNull(eventBus.getStickyEvent(IntTestEvent.class, 0));
+        assertNull(eventBus.getStickyEvent(IntTestEvent.class, 1));
+        assertNotNull(eventBus.getStickyEvent(IntTestEvent.class, 4));
+    }
+
+    @Test
+    public void testMaxStickyEventsLeastRecentlyUsed() {
+        eventBus = EventBus.builder().maxStickyEvents(3).build();
+        eventBus.postSticky(new IntTestEvent(1), "a");
+        eventBus.postSticky(new IntTestEvent(2), "b");
+        eventBus.postSticky("Hello");
+        assertNotNull(eventBus.getStickyEvent(IntTestEvent.class, "a"));
+        eventBus.postSticky(new IntTestEvent(4), "d");
+        assertNotNull(eventBus.getStickyEvent(IntTestEvent.class, "a"));
+        assertNull(eventBus.getStickyEvent(IntTestEvent.class, "b"));
+        assertEquals("Hello", eventBus.getStickyEvent(String.class));
+    }
+
+    @Test
+    public void testBulkReadsDoNotReference() {
+        eventBus = EventBus.builder().maxStickyEvents(3).build();
+        eventBus.postSticky(new IntTestEvent(1), "a");
+        eventBus.postSticky(new IntTestEvent(2), "b");
+        eventBus.postSticky(new IntTestEvent(3), "c");
+        Map<Object, IntTestEvent> eventsByKey = eventBus.getStickyEventsByKey(IntTestEvent.class);
+        assertEquals(3, eventsByKey.size());
+        for (IntTestEvent event : eventsByKey.values()) {
+            assertNotNull(event);
+        }
+        eventBus.register(this);
+        assertEventCount(3);
+        eventBus.postSticky(new IntTestEvent(4), "d");
+        // Still the oldest one is evicted
+        assertNull(eventBus.getStickyEvent(IntTestEvent.class, "a"));
+        assertNotNull(eventBus.getStickyEvent(IntTestEvent.class, "b"));
+        assertEquals(1, eventBus.getEvictedStickyEventCount());
+    }
+
+    @Test
+    public void testReplaceDoesNotEvict() {
+        eventBus = EventBus.builder().maxStickyEvents(2).build();
+        eventBus.postSticky("Hello");
+        for (int i = 0; i < 1000; i++) {
+            eventBus.postSticky(new IntTestEvent(i), "a");
+        }
+        assertEquals(2, eventBus.getStickyEventCount());
+        assertEquals(0, eventBus.getEvictedStickyEventCount());
+        assertEquals(999, eventBus.getStickyEvent(IntTestEvent.class, "a").value);
+    }
+
+    @Test
+    public void testMaxStickyEventBytes() {
+        eventBus = EventBus.builder().maxStickyEventBytes(10, new StickyEventSizer() {
+            @Override
+            public long sizeOf(Object event) {
+                return ((String) event).length();
+            }
+        }).build();
+        eventBus.postSticky("1234", 1);
+        eventBus.postSticky("5678", 2);
+        assertEquals(8, eventBus.getStickyEventBytes());
+        eventBus.postSticky("9012", 3);
+        assertEquals(8, eventBus.getStickyEventBytes());
+        assertEquals(1, eventBus.getEvictedStickyEventCount());
+        assertNull(eventBus.getStickyEvent(String.class, 1));
+
+        eventBus.removeAllStickyEvents();
+        assertEquals(0, eventBus.getStickyEventBytes());
+        assertEquals(0, eventBus.getStickyEventCount());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidMaxStickyEvents() {
+        EventBus.builder().maxStickyEvents(0);
+    }
+
+    @Subscribe(sticky = true)
+    public void onEvent(String event) {
+        trackEvent(event);
+    }
+
+    @Subscribe(sticky = true)
+    public void onEvent(IntTestEvent event) {
+        trackEvent(event);
+    }
+
+}
@@ -157,6 +157,70 @@ public class EventBusStickyEventTest extends AbstractEventBusTest {
         assertNull(eventBus.getStickyEvent(String.class));
     }
 
+    @Test
+    public void testCompareAndSetSticky() {
+        eventBus.register(this);
+        IntTestEvent first = new IntTestEvent(1);
+        assertTrue(eventBus.compareAndSetSticky(null, first));
+        assertFalse(eventBus.compareAndSetSticky(null, new IntTestEvent(2)));
+        assertFalse(eventBus.compareAndSetSticky(new IntTestEvent(1), new IntTestEvent(2)));
+        IntTestEvent second = new IntTestEvent(2);
+        assertTrue(eventBus.compareAndSetSticky(first, second));
+        assertSame(second, eventBus.getStickyEvent(IntTestEvent.class));
+        // Only successful updates are posted
+        assertEquals(2, eventCount.intValue());
+        assertSame(second, lastEvent);
+    }
+
+    @Test(expected = EventBusException.class)
+    public void testCompareAndSetStickyOtherClass() {
+        eventBus.compareAndSetSticky("Sticky", new IntTestEvent(1));
+    }
+
+    @Test
+    public void testUpdateSticky() {
+        eventBus.register(this);
+        IntTestEvent event = eventBus.updateSticky(IntTestEvent.class, new Incrementer());
+        assertEquals(1, event.value);
+        event = eventBus.updateSticky(IntTestEvent.class, new Incrementer());
+        assertEquals(2, event.value);
+        assertSame(event, eventBus.getStickyEvent(IntTestEvent.class));
+        assertEquals(2, eventCount.intValue());
+        assertSame(event, lastEvent);
+
+        assertNull(eventBus.updateSticky(IntTestEvent.class, new StickyEventUpdater<IntTestEvent>() {
+            @Override
+            public IntTestEvent update(IntTestEvent current) {
+                return null;
+            }
+        }));
+        assertNull(eventBus.getStickyEvent(IntTestEvent.class));
+        assertEquals(2, eventCount.intValue());
+    }
+
+    @Test
+    public void testUpdateStickyConcurrently() throws InterruptedException {
+        final int threadCount = 4;
+        final int updates = 1000;
+        Thread[] threads = new Thread[threadCount];
+        for (int i = 0; i < threadCount; i++) {
+            threads[i] = new Thread() {
+                @Override
+                public void run() {
+                    for (int j = 0; j < updates; j++) {
+                        eventBus.updateSticky(IntTestEvent.class, new Incrementer());
+                    }
+                }
+            };
+            threads[i].start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        // No lost updates
+        assertEquals(threadCount * updates, eventBus.getStickyEvent(IntTestEvent.class).value);
+    }
+
     @Subscribe(sticky = true)
     public void onEvent(String event) {
         trackEvent(event);
@@ -193,4 +257,11 @@ public class EventBusStickyEventTest extends AbstractEventBusTest {
             trackEvent(event);
         }
     }
+
+    static class Incrementer implements StickyEventUpdater<IntTestEvent> {
+        @Override
+        public IntTestEvent update(IntTestEvent current) {
+            return new IntTestEvent(current != null ? current.value + 1 : 1);
+        }
+    }
 }
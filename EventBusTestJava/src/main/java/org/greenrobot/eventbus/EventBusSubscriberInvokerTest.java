@@ -0,0 +1,131 @@
+/*
+ * Copyright (C) 2012-2020 Markus Junginger, greenrobot (http://greenrobot.org)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.greenrobot.eventbus;
+
+import org.greenrobot.eventbus.android.AndroidDependenciesDetector;
+import org.junit.Assume;
+import org.junit.Test;
+
+import java.lang.reflect.Method;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+
+/**
+ * Checks subscriber methods are called without reflection where possible and compares the per-delivery cost of
+ * POSTING subscribers with reflection.
+ */
+public class EventBusSubscriberInvokerTest extends AbstractEventBusTest {
+
+    private static final int WARMUP_COUNT = 100000;
+    private static final int COUNT = LONG_TESTS ? 10000000 : 1000000;
+
+    @Test
+    public void testInvokerCreated() throws Throwable {
+        Assume.assumeFalse(AndroidDependenciesDetector.isAndroidSDKAvailable());
+        Method method = PublicSubscriber.class.getMethod("onEvent", String.class);
+        SubscriberInvoker invoker = SubscriberInvokerFactory.create(method);
+        assertNotNull(invoker);
+
+        PublicSubscriber subscriber = new PublicSubscriber();
+        invoker.invoke(subscriber, "Hello");
+        assertEquals(1, subscriber.count);
+    }
+
+    @Test
+    public void testNoInvokerForNonPublicClass() throws Exception {
+        Method method = NonPublicSubscriber.class.getMethod("onEvent", String.class);
+        assertNull(SubscriberInvokerFactory.create(method));
+    }
+
+    @Test
+    public void testFallbackToReflection() {
+        NonPublicSubscriber subscriber = new NonPublicSubscriber();
+        eventBus.register(subscriber);
+        eventBus.post("Hello");
+        assertEquals(1, subscriber.count);
+    }
+
+    @Test
+    public void testExceptionNotWrapped() {
+        eventBus = EventBus.builder().logSubscriberExceptions(false).build();
+        eventBus.register(new ThrowingSubscriber());
+        eventBus.register(this);
+        eventBus.post("Hello");
+        assertEventCount(1);
+        SubscriberExceptionEvent exceptionEvent = (SubscriberExceptionEvent) lastEvent;
+        assertEquals(IllegalArgumentException.class, exceptionEvent.throwable.getClass());
+    }
+
+    @Test
+    public void testPostingDeliveryCost() throws Exception {
+        Method method = PublicSubscriber.class.getMethod("onEvent", String.class);
+        SubscriberMethod reflective = new SubscriberMethod(method, String.class, ThreadMode.POSTING, 0, false);
+        SubscriberMethod direct = new SubscriberMethod(method, String.class, ThreadMode.POSTING, 0, false);
+        direct.invoker = SubscriberInvokerFactory.create(method);
+
+        PublicSubscriber subscriber = new PublicSubscriber();
+        measureDeliveries(new Subscription(subscriber, reflective), WARMUP_COUNT);
+        measureDeliveries(new Subscription(subscriber, direct), WARMUP_COUNT);
+        long reflectiveNanos = measureDeliveries(new Subscription(subscriber, reflective), COUNT);
+        long directNanos = measureDeliveries(new Subscription(subscriber, direct), COUNT);
+        log("POSTING delivery via reflection: " + (reflectiveNanos * 1000 / COUNT) + " ps/op, via " +
+                (direct.invoker != null ? "invoker" : "reflection (no invoker available)") + ": " +
+                (directNanos * 1000 / COUNT) + " ps/op");
+        assertEquals(2 * (WARMUP_COUNT + COUNT), subscriber.count);
+    }
+
+    private long measureDeliveries(Subscription subscription, int count) {
+        String event = "Hello";
+        long start = System.nanoTime();
+        for (int i = 0; i < count; i++) {
+            eventBus.invokeSubscriber(subscription, event);
+        }
+        return System.nanoTime() - start;
+    }
+
+    @Subscribe
+    public void onEvent(SubscriberExceptionEvent event) {
+        trackEvent(event);
+    }
+
+    public static class PublicSubscriber {
+        int count;
+
+        @Subscribe
+        public void onEvent(String event) {
+            count++;
+        }
+    }
+
+    static class NonPublicSubscriber {
+        int count;
+
+        @Subscribe
+        public void onEvent(String event) {
+            count++;
+        }
+    }
+
+    public static class ThrowingSubscriber {
+        @Subscribe
+        public void onEvent(String event) {
+            throw new IllegalArgumentException("Test");
+        }
+    }
+
+}
@@ -0,0 +1,53 @@
+/*
+ * Copyright (C) 2012-2020 Markus Junginger, greenrobot (http://greenrobot.org)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.greenrobot.eventbus;
+
+import org.greenrobot.eventbus.EventBusInheritanceTest.MyEvent;
+import org.greenrobot.eventbus.EventBusInheritanceTest.MyEventExtended;
+import org.greenrobot.eventbus.EventBusInheritanceTest.MyEventInterface;
+import org.greenrobot.eventbus.EventBusInheritanceTest.MyEventInterfaceExtended;
+import org.junit.Test;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertSame;
+
+public class EventTypesCacheTest {
+
+    @Test
+    public void testEventTypes() {
+        Class<?>[] expected = {MyEventExtended.class, MyEventInterfaceExtended.class, MyEventInterface.class,
+                MyEvent.class, Object.class};
+        assertArrayEquals(expected, EventTypesCache.computeEventTypes(MyEventExtended.class));
+    }
+
+    @Test
+    public void testInterfaceOnlyOnce() {
+        Class<?>[] expected = {DiamondEvent.class, MyEventInterfaceExtended.class, MyEventInterface.class,
+                Object.class};
+        assertArrayEquals(expected, EventTypesCache.computeEventTypes(DiamondEvent.class));
+    }
+
+    @Test
+    public void testCached() {
+        EventTypesCache cache = EventTypesCache.create();
+        Class<?>[] eventTypes = cache.get(MyEventExtended.class);
+        assertSame(eventTypes, cache.get(MyEventExtended.class));
+    }
+
+    public static class DiamondEvent implements MyEventInterfaceExtended, MyEventInterface {
+    }
+
+}
@@ -0,0 +1,126 @@
+/*
+ * Copyright (C) 2012-2020 Markus Junginger, greenrobot (http://greenrobot.org)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.greenrobot.eventbus;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class PendingPostQueueTest {
+
+    private static final int PRODUCERS = 4;
+    private static final int COUNT_PER_PRODUCER = 100000;
+
+    @Test
+    public void testFifo() {
+        PendingPostQueue queue = new PendingPostQueue();
+        assertTrue(queue.isEmpty());
+        assertNull(queue.poll());
+
+        queue.enqueue(new PendingPost("1", null));
+        queue.enqueue(new PendingPost("2", null));
+        assertEquals("1", queue.poll().event);
+        queue.enqueue(new PendingPost("3", null));
+        assertEquals("2", queue.poll().event);
+        assertEquals("3", queue.poll().event);
+        assertNull(queue.poll());
+        assertTrue(queue.isEmpty());
+    }
+
+    @Test
+    public void testPolledIsUnlinked() {
+        PendingPostQueue queue = new PendingPostQueue();
+        queue.enqueue(new PendingPost("1", null));
+        queue.enqueue(new PendingPost("2", null));
+        PendingPost pendingPost = queue.poll();
+        assertNull(pendingPost.next);
+
+        // Reusing the polled pending post must not affect the queue
+        PendingPostPool pool = PendingPostPool.create(PendingPostPooling.THREAD_LOCAL);
+        pool.release(pendingPost);
+        PendingPost reused = pool.obtain(null, "3");
+        assertSame(pendingPost, reused);
+        queue.enqueue(reused);
+        assertEquals("2", queue.poll().event);
+        assertEquals("3", queue.poll().event);
+    }
+
+    @Test
+    public void testPollTimeout() throws InterruptedException {
+        for (WaitStrategy waitStrategy : WaitStrategy.values()) {
+            PendingPostQueue queue = new PendingPostQueue(waitStrategy);
+            long start = System.nanoTime();
+            assertNull(queue.poll(10));
+            assertTrue(System.nanoTime() - start >= 10 * 1000000L);
+        }
+    }
+
+    @Test
+    public void testMultipleProducersBlock() throws InterruptedException {
+        runProducers(WaitStrategy.BLOCK);
+    }
+
+    @Test
+    public void testMultipleProducersSpinThenPark() throws InterruptedException {
+        runProducers(WaitStrategy.SPIN_THEN_PARK);
+    }
+
+    @Test
+    public void testMultipleProducersYield() throws InterruptedException {
+        runProducers(WaitStrategy.YIELD);
+    }
+
+    /** Checks all pending posts arrive in the order of each producer. */
+    private void runProducers(WaitStrategy waitStrategy) throws InterruptedException {
+        final PendingPostQueue queue = new PendingPostQueue(waitStrategy);
+        List<Thread> producers = new ArrayList<>();
+        for (int i = 0; i < PRODUCERS; i++) {
+            final int producer = i;
+            Thread thread = new Thread() {
+                @Override
+                public void run() {
+                    for (int count = 0; count < COUNT_PER_PRODUCER; count++) {
+                        queue.enqueue(new PendingPost(new int[]{producer, count}, null));
+                        if (count % 1000 == 0) {
+                            // Let the consumer wait once in a while
+                            Thread.yield();
+                        }
+                    }
+                }
+            };
+            producers.add(thread);
+            thread.start();
+        }
+
+        int[] expectedCounts = new int[PRODUCERS];
+        for (int total = 0; total < PRODUCERS * COUNT_PER_PRODUCER; total++) {
+            PendingPost pendingPost = queue.poll(10000);
+            int[] event = (int[]) pendingPost.event;
+            assertEquals(expectedCounts[event[0]]++, event[1]);
+        }
+        assertNull(queue.poll());
+        for (Thread producer : producers) {
+            producer.join();
+        }
+    }
+
+}
@@ -20,7 +20,7 @@ import android.os.Looper;
 import android.os.Message;
 import android.os.SystemClock;
 
-public class HandlerPoster extends Handler implements Poster {
+public class HandlerPoster extends Handler implements DropOldestPoster {
 
     private final PendingPostQueue queue;
     private final int maxMillisInsideHandleMessage;
@@ -35,7 +35,11 @@ public class HandlerPoster extends Handler implements Poster {
     }
 
     public void enqueue(Subscription subscription, Object event) {
-        PendingPost pendingPost = PendingPost.obtainPendingPost(subscription, event);
+        enqueue(subscription, event, false);
+    }
+
+    public void enqueue(Subscription subscription, Object event, boolean dropsOldest) {
+        PendingPost pendingPost = eventBus.obtainPendingPost(subscription, event, dropsOldest);
         synchronized (this) {
             queue.enqueue(pendingPost);
             if (!handlerActive) {